@@ -435,9 +435,36 @@ public class ECKey implements Serializable {
   public static byte[] signatureToKeyBytes(byte[] messageHash,
       ECDSASignature sig) throws
       SignatureException {
+    return signatureToKeyBytes(messageHash, sig.r, sig.s, sig.v);
+  }
+
+  /**
+   * Recover the key that signed the given signature, without going through base64.
+   *
+   * @param messageHash 32-byte hash of message
+   * @param signature R (32 bytes), S (32 bytes) and the header byte, as stored in transactions and
+   * blocks
+   * @return 65-byte encoded public key
+   */
+  public static byte[] signatureToKeyBytes(byte[] messageHash, byte[] signature)
+      throws SignatureException {
+    if (signature.length < 65) {
+      throw new SignatureException("Signature truncated, expected 65 " +
+          "bytes and got " + signature.length);
+    }
+    byte v = signature[64];
+    if (v < 27) {
+      v += 27; //revId -> v
+    }
+    return signatureToKeyBytes(messageHash,
+        new BigInteger(1, Arrays.copyOfRange(signature, 0, 32)),
+        new BigInteger(1, Arrays.copyOfRange(signature, 32, 64)), v);
+  }
+
+  private static byte[] signatureToKeyBytes(byte[] messageHash, BigInteger r,
+      BigInteger s, int header) throws SignatureException {
     check(messageHash.length == 32, "messageHash argument has length " +
         messageHash.length);
-    int header = sig.v;
     // The header byte: 0x1B = first key with even y, 0x1C = first key
     // with odd y,
     //                  0x1D = second key with even y, 0x1E = second key
@@ -449,8 +476,7 @@ public class ECKey implements Serializable {
       header -= 4;
     }
     int recId = header - 27;
-    byte[] key = ECKey.recoverPubBytesFromSignature(recId, sig,
-        messageHash);
+    byte[] key = Secp256k1Recovery.recoverPubBytes(recId, r, s, messageHash);
     if (key == null) {
       throw new SignatureException("Could not recover public key from " +
           "signature");
@@ -484,6 +510,18 @@ public class ECKey implements Serializable {
     return computeAddress(signatureToKeyBytes(messageHash, sig));
   }
 
+  /**
+   * Compute the address of the key that signed the given signature.
+   *
+   * @param messageHash 32-byte hash of message
+   * @param signature R, S and the header byte, 65 bytes
+   * @return 20-byte address
+   */
+  public static byte[] signatureToAddress(byte[] messageHash, byte[] signature)
+      throws SignatureException {
+    return computeAddress(signatureToKeyBytes(messageHash, signature));
+  }
+
   /**
    * Compute the key that signed the given signature.
    *
@@ -20,6 +20,8 @@ package org.tron.common.crypto;
 
 import static java.util.Arrays.copyOfRange;
 
+import com.google.protobuf.ByteString;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Provider;
@@ -36,39 +38,43 @@ public class Hash {
   private static final String HASH_256_ALGORITHM_NAME;
   private static final String HASH_512_ALGORITHM_NAME;
 
+  private static final int BUFFER_SIZE = 4096;
+
+  // the provider lookup of getInstance is paid once per thread, the digests are always left reset
+  private static final ThreadLocal<MessageDigest> sha3Digests;
+  private static final ThreadLocal<MessageDigest> sha512Digests;
+  private static final ThreadLocal<byte[]> buffers =
+      ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
   static {
     Security.addProvider(TronCastleProvider.getInstance());
     CRYPTO_PROVIDER = Security.getProvider("SC");
     HASH_256_ALGORITHM_NAME = "TRON-KECCAK-256";
     HASH_512_ALGORITHM_NAME = "TRON-KECCAK-512";
+    sha3Digests = ThreadLocal.withInitial(() -> newDigest(HASH_256_ALGORITHM_NAME));
+    sha512Digests = ThreadLocal.withInitial(() -> newDigest(HASH_512_ALGORITHM_NAME));
   }
 
-  public static byte[] sha3(byte[] input) {
-    MessageDigest digest;
+  private static MessageDigest newDigest(String algorithm) {
     try {
-      digest = MessageDigest.getInstance(HASH_256_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input);
-      return digest.digest();
+      return MessageDigest.getInstance(algorithm, CRYPTO_PROVIDER);
     } catch (NoSuchAlgorithmException e) {
       logger.error("Can't find such algorithm", e);
       throw new RuntimeException(e);
     }
+  }
 
+  public static byte[] sha3(byte[] input) {
+    MessageDigest digest = sha3Digests.get();
+    digest.update(input);
+    return digest.digest();
   }
 
   public static byte[] sha3(byte[] input1, byte[] input2) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance(HASH_256_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input1, 0, input1.length);
-      digest.update(input2, 0, input2.length);
-      return digest.digest();
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Can't find such algorithm", e);
-      throw new RuntimeException(e);
-    }
+    MessageDigest digest = sha3Digests.get();
+    digest.update(input1, 0, input1.length);
+    digest.update(input2, 0, input2.length);
+    return digest.digest();
   }
 
   /**
@@ -80,29 +86,32 @@ public class Hash {
    * @return - keccak hash of the chunk
    */
   public static byte[] sha3(byte[] input, int start, int length) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance(HASH_256_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input, start, length);
-      return digest.digest();
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Can't find such algorithm", e);
-      throw new RuntimeException(e);
+    MessageDigest digest = sha3Digests.get();
+    digest.update(input, start, length);
+    return digest.digest();
+  }
+
+  /**
+   * keccak hash of the bytes of the ByteString, without copying it whole. The keccak digests only
+   * implement update(byte[], int, int), so the chunks go through the buffer of the thread.
+   */
+  public static byte[] sha3(ByteString input) {
+    MessageDigest digest = sha3Digests.get();
+    byte[] chunk = buffers.get();
+    for (ByteBuffer buffer : input.asReadOnlyByteBufferList()) {
+      while (buffer.hasRemaining()) {
+        int length = Math.min(buffer.remaining(), chunk.length);
+        buffer.get(chunk, 0, length);
+        digest.update(chunk, 0, length);
+      }
     }
+    return digest.digest();
   }
 
   public static byte[] sha512(byte[] input) {
-    MessageDigest digest;
-    try {
-      digest = MessageDigest.getInstance(HASH_512_ALGORITHM_NAME,
-          CRYPTO_PROVIDER);
-      digest.update(input);
-      return digest.digest();
-    } catch (NoSuchAlgorithmException e) {
-      logger.error("Can't find such algorithm", e);
-      throw new RuntimeException(e);
-    }
+    MessageDigest digest = sha512Digests.get();
+    digest.update(input);
+    return digest.digest();
   }
 
   /**
@@ -0,0 +1,87 @@
+package org.tron.common.crypto;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.math.BigInteger;
+import javax.annotation.Nullable;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
+import org.spongycastle.math.ec.ECAlgorithms;
+import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.util.BigIntegers;
+
+/**
+ * Public key recovery of secp256k1 signatures, on the path of every transaction and block
+ * signature check.
+ *
+ * <p>It runs on the dedicated secp256k1 curve of spongycastle: field elements are fixed size int
+ * arrays instead of BigIntegers, the double multiplication uses the GLV endomorphism, and the
+ * wNAF table of G is computed once and kept on the generator. The cofactor is 1, so every decoded
+ * point has order n and the nR == infinity check of SEC1 4.1.6 is skipped.
+ *
+ * <p>It recovers the same keys as {@link ECKey#recoverPubBytesFromSignature} for the same
+ * inputs.
+ */
+public class Secp256k1Recovery {
+
+  private static final X9ECParameters PARAMS = CustomNamedCurves.getByName("secp256k1");
+
+  private static final ECCurve CURVE = PARAMS.getCurve();
+
+  private static final ECPoint G = PARAMS.getG();
+
+  private static final BigInteger N = PARAMS.getN();
+
+  private static final BigInteger P = CURVE.getField().getCharacteristic();
+
+  static {
+    // build the table of G now rather than on the first signature
+    ECAlgorithms.sumOfTwoMultiplies(G, BigInteger.ONE, G, BigInteger.ONE);
+  }
+
+  private Secp256k1Recovery() {
+  }
+
+  /**
+   * @param recId which of the 4 possible keys to recover
+   * @param r the R component of the signature
+   * @param s the S component of the signature
+   * @param messageHash hash of the data that was signed
+   * @return 65-byte encoded public key, null if there is none for this recId
+   */
+  @Nullable
+  public static byte[] recoverPubBytes(int recId, BigInteger r, BigInteger s,
+      byte[] messageHash) {
+    checkArgument(recId >= 0, "recId must be positive");
+    checkArgument(r.signum() >= 0, "r must be positive");
+    checkArgument(s.signum() >= 0, "s must be positive");
+    checkArgument(messageHash != null, "messageHash must not be null");
+
+    BigInteger x = recId < 2 ? r : r.add(N.multiply(BigInteger.valueOf(recId / 2)));
+    if (x.compareTo(P) >= 0 || r.mod(N).signum() == 0) {
+      return null;
+    }
+    ECPoint point;
+    try {
+      point = decompress(x, (recId & 1) == 1);
+    } catch (IllegalArgumentException e) {
+      // x is not the coordinate of a point of the curve
+      return null;
+    }
+
+    // Q = r^-1 * (s * R - e * G)
+    BigInteger e = new BigInteger(1, messageHash);
+    BigInteger rInv = r.modInverse(N);
+    BigInteger a = rInv.multiply(e.negate().mod(N)).mod(N);
+    BigInteger b = rInv.multiply(s).mod(N);
+    return ECAlgorithms.sumOfTwoMultiplies(G, a, point, b).getEncoded(false);
+  }
+
+  private static ECPoint decompress(BigInteger x, boolean yBit) {
+    byte[] encoded = new byte[33];
+    encoded[0] = (byte) (yBit ? 0x03 : 0x02);
+    System.arraycopy(BigIntegers.asUnsignedByteArray(32, x), 0, encoded, 1, 32);
+    return CURVE.decodePoint(encoded);
+  }
+}
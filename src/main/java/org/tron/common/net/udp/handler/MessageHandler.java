@@ -22,7 +22,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
-import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.DatagramChannel;
 import java.net.InetSocketAddress;
 import java.util.function.Consumer;
 import org.slf4j.LoggerFactory;
@@ -38,7 +38,7 @@ public class MessageHandler extends SimpleChannelInboundHandler<UdpEvent>
 
   private EventHandler eventHandler;
 
-  public MessageHandler(NioDatagramChannel ch, EventHandler eventHandler) {
+  public MessageHandler(DatagramChannel ch, EventHandler eventHandler) {
     channel = ch;
     this.eventHandler = eventHandler;
   }
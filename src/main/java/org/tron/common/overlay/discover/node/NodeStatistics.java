@@ -20,6 +20,7 @@ package org.tron.common.overlay.discover.node;
 
 import static java.lang.Math.min;
 
+import com.codahale.metrics.Meter;
 import java.util.concurrent.atomic.AtomicLong;
 import org.tron.protos.Protocol.ReasonCode;
 
@@ -74,6 +75,8 @@ public class NodeStatistics {
   public final StatHandler p2pHandShake = new StatHandler();
   public final StatHandler tronOutMessage = new StatHandler();
   public final StatHandler tronInMessage = new StatHandler();
+  public final Meter tronOutBytes = new Meter();
+  public final Meter tronInBytes = new Meter();
 
   private ReasonCode tronLastRemoteDisconnectReason = null;
   private ReasonCode tronLastLocalDisconnectReason = null;
@@ -51,6 +51,8 @@ public class HelloMessage extends P2pMessage {
     builder.setGenesisBlockId(gBlockId);
     builder.setSolidBlockId(sBlockId);
     builder.setHeadBlockId(hBlockId);
+    builder.setCompactBlock(true);
+    builder.setCompression(Args.getInstance().isNodeCompressionEnable());
 
     this.helloMessage = builder.build();
     this.type = MessageTypes.P2P_HELLO.asByte();
@@ -86,6 +88,20 @@ public class HelloMessage extends P2pMessage {
             this.helloMessage.getHeadBlockId().getNumber());
   }
 
+  /**
+   * whether the node rebuilds blocks from compact blocks.
+   */
+  public boolean isCompactBlock() {
+    return this.helloMessage.getCompactBlock();
+  }
+
+  /**
+   * whether the node accepts compressed messages.
+   */
+  public boolean isCompression() {
+    return this.helloMessage.getCompression();
+  }
+
   @Override
   public Class<?> getAnswerMessage() {
     return null;
@@ -3,7 +3,6 @@ package org.tron.common.overlay.message;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.util.Arrays;
-import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tron.common.utils.Sha256Hash;
@@ -16,6 +15,8 @@ public abstract class Message {
   protected byte[] data;
   protected byte type;
 
+  private volatile ByteBuf sendData;
+
   public Message() {
   }
 
@@ -28,8 +29,18 @@ public abstract class Message {
     this.data = packed;
   }
 
-  public ByteBuf getSendData(){
-     return Unpooled.wrappedBuffer(ArrayUtils.add(this.getData(), 0 ,type));
+  /**
+   * get the encoded message for one peer. The type byte and the data are wrapped once without
+   * copying, every call returns a duplicate with its own indexes.
+   */
+  public ByteBuf getSendData() {
+    ByteBuf encoded = sendData;
+    if (encoded == null) {
+      encoded = Unpooled.unreleasableBuffer(
+          Unpooled.wrappedBuffer(new byte[]{type}, this.getData()));
+      sendData = encoded;
+    }
+    return encoded.duplicate();
   }
 
   public Sha256Hash getMessageId() {
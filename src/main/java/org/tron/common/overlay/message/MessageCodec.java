@@ -1,10 +1,16 @@
 package org.tron.common.overlay.message;
 
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,26 +20,90 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.tron.common.overlay.server.Channel;
+import org.tron.common.overlay.server.NetMetrics;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.exception.P2pException;
+import org.tron.core.exception.ValidateSignatureException;
+import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.BlockTrxsMessage;
+import org.tron.core.net.message.CompactBlockMessage;
 import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.core.net.message.TransactionsMessage;
 import org.tron.core.net.message.TronMessageFactory;
 
+/**
+ * Decode the frames of one channel.
+ *
+ * <p>Blocks and transactions are parsed on a shared worker pool, together with their hashes and
+ * transaction signatures, so that the IO thread only copies the frame. Everything else is parsed
+ * on the IO thread. Messages are still handed to the next handlers in the order they arrived;
+ * while too many of them wait for a worker the channel stops reading.
+ */
 @Component
 @Scope("prototype")
 public class MessageCodec extends ByteToMessageDecoder {
 
+  private static final Logger logger = LoggerFactory.getLogger("MessageCodec");
+
+  private static final ExecutorService decodePool = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      new ThreadFactoryBuilder().setNameFormat("MessageDecodePool-%d").setDaemon(true).build());
+
   private Channel channel;
   private P2pMessageFactory p2pMessageFactory = new P2pMessageFactory();
   private TronMessageFactory tronMessageFactory = new TronMessageFactory();
 
+  /**
+   * completes once the previous message has been handed to the event loop, never exceptionally:
+   * a failed decode is handed over as a failure and closes the channel.
+   */
+  private CompletableFuture<Void> lastDelivery = CompletableFuture.completedFuture(null);
+
+  /**
+   * messages decoded but not delivered yet, only used on the event loop.
+   */
+  private int pendingDecodes = 0;
+
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out) throws Exception {
-    byte[] encoded = new byte[buffer.readableBytes()];
-    buffer.readBytes(encoded);
     try {
-      Message msg = createMessage(encoded);
-      channel.getNodeStatistics().tronInMessage.add();
-      out.add(msg);
+      // copy the payload once, the messages keep it for the message id and for relaying
+      byte type = buffer.readByte();
+      byte[] rawData = new byte[buffer.readableBytes()];
+      buffer.readBytes(rawData);
+      NetMetrics.inMessage(type, rawData.length + 1);
+      channel.getNodeStatistics().tronInBytes.mark(rawData.length + 1);
+
+      if (pendingDecodes == 0 && !isHeavy(type)) {
+        Message msg;
+        try (Timer.Context ignored = NetMetrics.DECODE.time()) {
+          msg = createMessage(type, rawData);
+        }
+        channel.getNodeStatistics().tronInMessage.add();
+        out.add(msg);
+        return;
+      }
+
+      CompletableFuture<Decoded> decoded = isHeavy(type)
+          ? CompletableFuture.supplyAsync(() -> parse(type, rawData), decodePool)
+          : CompletableFuture.completedFuture(parse(type, rawData));
+      if (++pendingDecodes >= NetConstants.MAX_PENDING_DECODES) {
+        ctx.channel().config().setAutoRead(false);
+      }
+      lastDelivery = lastDelivery.thenCombine(decoded, (previous, result) -> result)
+          .handle((result, error) -> {
+            try {
+              ctx.executor().execute(() -> deliver(ctx, result, error));
+            } catch (RejectedExecutionException e) {
+              // the event loop is shutting down, nothing will be read from this channel anymore
+              logger.debug("drop decoded message, channel {} is closing", ctx.channel());
+              ctx.channel().close();
+            }
+            return null;
+          });
     } catch (Exception e) {
       channel.processException(e);
     }
@@ -43,15 +113,97 @@ public class MessageCodec extends ByteToMessageDecoder {
     this.channel = channel;
   }
 
-  private Message createMessage(byte[] encoded) throws Exception{
-    byte type = encoded[0];
+  /**
+   * hand a decoded message to the next handlers, error is set when the decode itself failed,
+   * for example with an Error escaping the parser.
+   */
+  private void deliver(ChannelHandlerContext ctx, Decoded result, Throwable error) {
+    if (--pendingDecodes <= NetConstants.MAX_PENDING_DECODES / 2
+        && !ctx.channel().config().isAutoRead()) {
+      ctx.channel().config().setAutoRead(true);
+    }
+    if (!ctx.channel().isActive()) {
+      return;
+    }
+    if (error != null) {
+      channel.processException(error);
+      return;
+    }
+    if (result.error != null) {
+      channel.processException(result.error);
+      return;
+    }
+    channel.getNodeStatistics().tronInMessage.add();
+    ctx.fireChannelRead(result.msg);
+    ctx.fireChannelReadComplete();
+  }
+
+  private Decoded parse(byte type, byte[] rawData) {
+    try (Timer.Context ignored = NetMetrics.DECODE.time()) {
+      Message msg = createMessage(type, rawData);
+      preVerify(msg);
+      return new Decoded(msg, null);
+    } catch (Exception e) {
+      return new Decoded(null, e);
+    }
+  }
+
+  private Message createMessage(byte type, byte[] rawData) throws Exception{
     if (MessageTypes.inP2pRange(type)) {
-      return p2pMessageFactory.create(encoded);
+      return p2pMessageFactory.create(type, rawData);
     }
     if (MessageTypes.inTronRange(type)) {
-      return tronMessageFactory.create(encoded);
+      return tronMessageFactory.create(type, rawData);
+    }
+    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + type);
+  }
+
+  private static boolean isHeavy(byte type) {
+    return type == MessageTypes.BLOCK.asByte() || type == MessageTypes.BLOCKS.asByte()
+        || type == MessageTypes.TRX.asByte() || type == MessageTypes.TRXS.asByte()
+        || type == MessageTypes.COMPACT_BLOCK.asByte() || type == MessageTypes.BLOCK_TRXS.asByte();
+  }
+
+  /**
+   * Compute the hashes and check the transaction signatures ahead of the manager, the results
+   * are kept in the capsules of the message, which the handlers reuse. Invalid signatures are left
+   * for the manager to reject.
+   */
+  private static void preVerify(Message msg) {
+    if (msg instanceof BlockMessage) {
+      BlockCapsule block = ((BlockMessage) msg).getBlockCapsule();
+      block.getBlockId();
+      block.getTransactions().forEach(MessageCodec::preVerify);
+    } else if (msg instanceof TransactionMessage) {
+      preVerify(((TransactionMessage) msg).getTransactionCapsule());
+    } else if (msg instanceof TransactionsMessage) {
+      ((TransactionsMessage) msg).getTransactionCapsules().forEach(MessageCodec::preVerify);
+    } else if (msg instanceof CompactBlockMessage) {
+      ((CompactBlockMessage) msg).getBlockId();
+    } else if (msg instanceof BlockTrxsMessage) {
+      ((BlockTrxsMessage) msg).getTransactionCapsules().forEach(MessageCodec::preVerify);
+    }
+  }
+
+  private static void preVerify(TransactionCapsule trx) {
+    trx.getTransactionId();
+    trx.getMerkleHash();
+    try {
+      trx.validateSignature();
+    } catch (ValidateSignatureException e) {
+      // the manager rejects it and bans the peer as before
+    }
+  }
+
+  private static final class Decoded {
+
+    private final Message msg;
+    private final Exception error;
+
+    private Decoded(Message msg, Exception error) {
+      this.msg = msg;
+      this.error = error;
     }
-    throw new P2pException(P2pException.TypeEnum.NO_SUCH_MESSAGE, "type=" + encoded[0]);
   }
 
-}
\ No newline at end of file
+}
@@ -38,6 +38,7 @@ import org.tron.common.overlay.message.DisconnectMessage;
 import org.tron.common.overlay.message.HelloMessage;
 import org.tron.common.overlay.message.MessageCodec;
 import org.tron.common.overlay.message.StaticMessages;
+import org.tron.core.config.args.Args;
 import org.tron.core.db.ByteArrayWrapper;
 import org.tron.core.exception.P2pException;
 import org.tron.core.net.peer.PeerConnectionDelegate;
@@ -65,6 +66,9 @@ public class Channel {
   @Autowired
   private WireTrafficStats stats;
 
+  @Autowired
+  private CompressionHandler compressionHandler;
+
   @Autowired
   private HandshakeHandler handshakeHandler;
 
@@ -112,6 +116,7 @@ public class Channel {
     pipeline.addLast(stats.tcp);
     pipeline.addLast("protoPender", new ProtobufVarint32LengthFieldPrepender());
     pipeline.addLast("lengthDecode", new TrxProtobufVarint32FrameDecoder(this));
+    pipeline.addLast("compression", compressionHandler);
 
     //handshake first
     pipeline.addLast("handshakeHandler", handshakeHandler);
@@ -136,6 +141,8 @@ public class Channel {
     ctx.pipeline().addLast("messageCodec", messageCodec);
     ctx.pipeline().addLast("p2p", p2pHandler);
     ctx.pipeline().addLast("data", tronHandler);
+    compressionHandler.setEnabled(
+        Args.getInstance().isNodeCompressionEnable() && msg.isCompression());
     setStartTime(msg.getTimestamp());
     setTronState(TronState.HANDSHAKE_FINISHED);
     getNodeStatistics().p2pHandShake.add();
@@ -0,0 +1,157 @@
+package org.tron.common.overlay.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.handler.codec.compression.Snappy;
+import java.util.List;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+import org.tron.core.config.Parameter.NetConstants;
+import org.tron.core.exception.P2pException;
+import org.tron.core.exception.P2pException.TypeEnum;
+import org.tron.core.net.message.MessageTypes;
+
+/**
+ * Snappy compression of the frames of one channel.
+ *
+ * <p>A compressed frame has the high bit of its type byte set, followed by the varint length of
+ * the data and the data cut in chunks of at most MAX_CHUNK_LENGTH bytes, each one written as the
+ * varint length of its snappy block and the block. The snappy encoder of netty keeps its offsets
+ * in shorts, so it can not take larger inputs. Compressed frames are always accepted; outgoing
+ * frames are only compressed once both hello messages announced compression, when they are larger
+ * than COMPRESS_THRESHOLD and when compression makes them smaller. P2P messages are never
+ * compressed, so the handshake stays readable by every node.
+ */
+@Component
+@Scope("prototype")
+public class CompressionHandler extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+
+  private static final int COMPRESSED = 0x80;
+
+  private static final int MAX_CHUNK_LENGTH = Short.MAX_VALUE;
+
+  private final Snappy encoder = new Snappy();
+
+  private final Snappy decoder = new Snappy();
+
+  private volatile boolean enabled = false;
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+    if (!msg.isReadable()) {
+      out.add(msg.retain());
+      return;
+    }
+    int length = msg.readableBytes() - 1;
+    byte type = msg.getByte(msg.readerIndex());
+    if (!enabled || length < NetConstants.COMPRESS_THRESHOLD || MessageTypes.inP2pRange(type)) {
+      out.add(msg.retain());
+      return;
+    }
+
+    ByteBuf compressed = ctx.alloc().buffer(length / 2 + 8);
+    compressed.writeByte(type | COMPRESSED);
+    writeLength(compressed, length);
+    ByteBuf chunk = ctx.alloc().buffer(Math.min(length, MAX_CHUNK_LENGTH) / 2 + 8);
+    try {
+      for (int offset = 1; offset <= length; offset += MAX_CHUNK_LENGTH) {
+        int chunkLength = Math.min(MAX_CHUNK_LENGTH, length + 1 - offset);
+        chunk.clear();
+        encoder.encode(msg.slice(msg.readerIndex() + offset, chunkLength), chunk, chunkLength);
+        writeLength(compressed, chunk.readableBytes());
+        compressed.writeBytes(chunk);
+      }
+    } catch (RuntimeException e) {
+      compressed.release();
+      throw e;
+    } finally {
+      chunk.release();
+      encoder.reset();
+    }
+    if (compressed.readableBytes() > length) {
+      compressed.release();
+      out.add(msg.retain());
+      return;
+    }
+    out.add(compressed);
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out)
+      throws Exception {
+    if (!msg.isReadable()) {
+      out.add(msg.retain());
+      return;
+    }
+    byte type = msg.getByte(msg.readerIndex());
+    if ((type & COMPRESSED) == 0) {
+      out.add(msg.retain());
+      return;
+    }
+
+    ByteBuf data = msg.slice(msg.readerIndex() + 1, msg.readableBytes() - 1);
+    int length = readLength(data);
+    if (length < 0 || length >= TrxProtobufVarint32FrameDecoder.maxMsgLength) {
+      throw new P2pException(TypeEnum.PARSE_MESSAGE_FAILED,
+          "bad uncompressed length " + length + ", type=" + (type & ~COMPRESSED));
+    }
+
+    // the capacity is bounded, a frame lying about its length can not make us allocate more
+    ByteBuf decompressed = ctx.alloc().buffer(length + 1, length + 1);
+    try {
+      decompressed.writeByte(type & ~COMPRESSED);
+      while (data.isReadable()) {
+        int chunkLength = readLength(data);
+        if (chunkLength <= 0 || chunkLength > data.readableBytes()) {
+          throw new P2pException(TypeEnum.PARSE_MESSAGE_FAILED,
+              "bad compressed chunk length " + chunkLength);
+        }
+        try {
+          decoder.decode(data.readSlice(chunkLength), decompressed);
+        } finally {
+          decoder.reset();
+        }
+      }
+      if (decompressed.readableBytes() != length + 1) {
+        throw new P2pException(TypeEnum.PARSE_MESSAGE_FAILED,
+            "uncompressed " + (decompressed.readableBytes() - 1) + " bytes instead of " + length);
+      }
+      out.add(decompressed);
+    } catch (Exception e) {
+      decompressed.release();
+      throw e;
+    }
+  }
+
+  private static void writeLength(ByteBuf out, int length) {
+    while ((length & ~0x7f) != 0) {
+      out.writeByte((length & 0x7f) | 0x80);
+      length >>>= 7;
+    }
+    out.writeByte(length);
+  }
+
+  /**
+   * read a varint length, -1 if it is malformed.
+   */
+  private static int readLength(ByteBuf data) {
+    int length = 0;
+    for (int shift = 0; shift < 32 && data.isReadable(); shift += 7) {
+      int b = data.readByte();
+      length |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return length;
+      }
+    }
+    return -1;
+  }
+}
@@ -1,85 +1,69 @@
 package org.tron.common.overlay.server;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.tron.common.overlay.message.Message;
 import org.tron.common.overlay.message.PingMessage;
+import org.tron.core.net.message.MessageTypes;
 import org.tron.protos.Protocol.ReasonCode;
 
+/**
+ * Outbound queue of one peer, drained on the event loop of its channel.
+ *
+ * <p>Messages wait in priority lanes (blocks, then the rest, then transactions). A drain writes
+ * as many of them as the channel accepts and flushes once; when the channel stops being
+ * writable the drain stops and resumes on the next writability change. Requests waiting for an
+ * answer are sent one at a time and time out on a timer shared by all peers.
+ *
+ * <p>The queue wait, the round trip of the requests and the bytes written are recorded in
+ * {@link NetMetrics} and in the statistics of the peer.
+ */
 @Component
 @Scope("prototype")
 public class MessageQueue {
 
   private static final Logger logger = LoggerFactory.getLogger("MessageQueue");
 
+  private static final long REQUEST_TIMEOUT = 20_000;
+
+  private static final Timer requestTimer = new HashedWheelTimer(r -> {
+    Thread thread = new Thread(r, "requestTimer");
+    thread.setDaemon(true);
+    return thread;
+  }, 100, TimeUnit.MILLISECONDS);
+
   private volatile boolean sendMsgFlag = false;
 
   private volatile long sendTime;
 
-  private Thread sendMsgThread;
-
   private Channel channel;
 
   private ChannelHandlerContext ctx = null;
 
   private Queue<MessageRoundtrip> requestQueue = new ConcurrentLinkedQueue<>();
 
-  private BlockingQueue<Message> msgQueue = new LinkedBlockingQueue<>();
-
-  private static ScheduledExecutorService sendTimer =
-          Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "sendTimer"));
+  private final Queue<MessageRoundtrip>[] lanes = newLanes();
 
-  private ScheduledFuture<?> sendTask;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
 
+  private volatile Timeout requestTimeout;
 
   public void activate(ChannelHandlerContext ctx) {
-
     this.ctx = ctx;
-
     sendMsgFlag = true;
-
-    sendTask = sendTimer.scheduleAtFixedRate(() -> {
-      try {
-        if (sendMsgFlag){
-          send();
-        }
-      } catch (Exception e) {
-        logger.error("Unhandled exception", e);
-      }
-    }, 10, 10, TimeUnit.MILLISECONDS);
-
-    sendMsgThread = new Thread(()->{
-     while (sendMsgFlag) {
-       try {
-         if (msgQueue.isEmpty()){
-           Thread.sleep(10);
-           continue;
-         }
-         Message msg = msgQueue.take();
-         ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
-           if (!future.isSuccess()) {
-             logger.error("Fail send to {}, {}", ctx.channel().remoteAddress(),  msg);
-           }
-         });
-       }catch (Exception e) {
-         logger.error("Fail send to {}, error info: {}", ctx.channel().remoteAddress(), e.getMessage());
-       }
-     }
-    });
-    sendMsgThread.setName("sendMsgThread-" + ctx.channel().remoteAddress());
-    sendMsgThread.start();
+    scheduleDrain();
   }
 
   public void setChannel(Channel channel) {
@@ -95,8 +79,9 @@ public class MessageQueue {
     if (msg.getAnswerMessage() != null){
       requestQueue.add(new MessageRoundtrip(msg));
     }else {
-      msgQueue.offer(msg);
+      lanes[Priority.of(msg).ordinal()].offer(new MessageRoundtrip(msg));
     }
+    scheduleDrain();
     return true;
   }
 
@@ -104,51 +89,148 @@ public class MessageQueue {
     logger.info("Receive from {}, {}", ctx.channel().remoteAddress(), msg);
     MessageRoundtrip messageRoundtrip = requestQueue.peek();
     if (messageRoundtrip != null && messageRoundtrip.getMsg().getAnswerMessage() == msg.getClass()){
+      messageRoundtrip.answer();
       requestQueue.remove();
+      NetMetrics.requestAnswered(messageRoundtrip.getMsg().getType(), messageRoundtrip.getTime());
+      cancelRequestTimeout();
+      scheduleDrain();
+    }
+  }
+
+  /**
+   * called by the pipeline when the channel crosses its write buffer water marks.
+   */
+  public void onWritabilityChanged(boolean writable) {
+    if (writable) {
+      scheduleDrain();
     }
   }
 
   public void close() {
     sendMsgFlag = false;
-    if(sendTask != null && !sendTask.isCancelled()){
-      sendTask.cancel(false);
-      sendTask = null;
-    }
-    if (sendMsgThread != null){
-      try{
-        sendMsgThread.join(20);
-        sendMsgThread = null;
-      }catch (Exception e){
-        logger.warn("Join send thread failed, peer {}", ctx.channel().remoteAddress());
-      }
+    cancelRequestTimeout();
+    requestQueue.clear();
+    for (Queue<MessageRoundtrip> lane : lanes) {
+      lane.clear();
     }
   }
 
-  private void send() {
-    MessageRoundtrip messageRoundtrip = requestQueue.peek();
-    if (!sendMsgFlag || messageRoundtrip == null){
-      return;
+  private void scheduleDrain() {
+    if (ctx != null && sendMsgFlag && drainScheduled.compareAndSet(false, true)) {
+      ctx.executor().execute(this::drain);
     }
-    if (messageRoundtrip.getRetryTimes() > 0 && !messageRoundtrip.hasToRetry()){
+  }
+
+  /**
+   * runs on the event loop only, so it never races with receivedMessage or the timeouts.
+   */
+  private void drain() {
+    drainScheduled.set(false);
+    if (!sendMsgFlag) {
       return;
     }
-    if (messageRoundtrip.getRetryTimes() > 0){
-      channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
-      logger.warn("Wait {} timeout. close channel {}.", messageRoundtrip.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
-      channel.close();
+
+    boolean written = sendRequest();
+    MessageRoundtrip queued;
+    while (ctx.channel().isWritable() && (queued = pollLanes()) != null) {
+      NetMetrics.QUEUE_WAIT
+          .update(System.currentTimeMillis() - queued.getTime(), TimeUnit.MILLISECONDS);
+      write(queued.getMsg());
+      written = true;
+    }
+    if (written) {
+      ctx.flush();
+    }
+  }
+
+  private boolean sendRequest() {
+    MessageRoundtrip messageRoundtrip = requestQueue.peek();
+    if (messageRoundtrip == null || messageRoundtrip.getRetryTimes() > 0
+        || !ctx.channel().isWritable()) {
+      return false;
+    }
+
+    write(messageRoundtrip.getMsg());
+    messageRoundtrip.incRetryTimes();
+    messageRoundtrip.saveTime();
+    requestTimeout = requestTimer.newTimeout(
+        timeout -> ctx.executor().execute(() -> onRequestTimeout(messageRoundtrip)),
+        REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+    return true;
+  }
+
+  private void onRequestTimeout(MessageRoundtrip messageRoundtrip) {
+    if (!sendMsgFlag || messageRoundtrip.isAnswered() || requestQueue.peek() != messageRoundtrip) {
       return;
     }
+    channel.getNodeStatistics().nodeDisconnectedLocal(ReasonCode.PING_TIMEOUT);
+    logger.warn("Wait {} timeout. close channel {}.", messageRoundtrip.getMsg().getAnswerMessage(), ctx.channel().remoteAddress());
+    channel.close();
+  }
 
-    Message msg = messageRoundtrip.getMsg();
+  private void cancelRequestTimeout() {
+    Timeout timeout = requestTimeout;
+    if (timeout != null) {
+      timeout.cancel();
+      requestTimeout = null;
+    }
+  }
 
-    ctx.writeAndFlush(msg.getSendData()).addListener((ChannelFutureListener) future -> {
+  private void write(Message msg) {
+    ByteBuf data = msg.getSendData();
+    NetMetrics.outMessage(data.getByte(data.readerIndex()), data.readableBytes());
+    if (channel != null && channel.getNodeStatistics() != null) {
+      channel.getNodeStatistics().tronOutBytes.mark(data.readableBytes());
+    }
+    ctx.write(data).addListener((ChannelFutureListener) future -> {
       if (!future.isSuccess()) {
         logger.error("Fail send to {}, {}", ctx.channel().remoteAddress(), msg);
       }
     });
+  }
 
-    messageRoundtrip.incRetryTimes();
-    messageRoundtrip.saveTime();
+  private MessageRoundtrip pollLanes() {
+    for (Queue<MessageRoundtrip> lane : lanes) {
+      MessageRoundtrip queued = lane.poll();
+      if (queued != null) {
+        return queued;
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Queue<MessageRoundtrip>[] newLanes() {
+    Queue<MessageRoundtrip>[] lanes = new Queue[Priority.values().length];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new ConcurrentLinkedQueue<>();
+    }
+    return lanes;
+  }
+
+  private enum Priority {
+    BLOCK,
+    NORMAL,
+    TRANSACTION;
+
+    static Priority of(Message msg) {
+      MessageTypes type = msg.getType();
+      if (type == null) {
+        return NORMAL;
+      }
+      switch (type) {
+        case BLOCK:
+        case BLOCKS:
+        case COMPACT_BLOCK:
+        case BLOCK_TRXS:
+          return BLOCK;
+        case TRX:
+        case TRXS:
+          return TRANSACTION;
+        default:
+          return NORMAL;
+      }
+    }
   }
 
 }
@@ -0,0 +1,115 @@
+package org.tron.common.overlay.server;
+
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.core.net.message.MessageTypes;
+
+/**
+ * Metrics of the p2p network, in one registry exported through JMX and the Network gRPC
+ * service.
+ *
+ * <p>Names:
+ * <ul>
+ * <li>net.in.messages.TYPE, net.in.bytes.TYPE and the same for out: meters per message type,
+ * bytes are counted before compression</li>
+ * <li>net.tcp.in.bytes, net.tcp.out.bytes, same for udp: meters of the bytes on the wire</li>
+ * <li>net.decode: time to parse an inbound message</li>
+ * <li>net.queue.wait: time a message waits in the queue of its peer before it is written</li>
+ * <li>net.rtt.TYPE: time between a request and its answer</li>
+ * <li>net.block.propagation: time between the timestamp of a new block and the moment we see
+ * it</li>
+ * </ul>
+ */
+@Slf4j
+public class NetMetrics {
+
+  public static final String DOMAIN = "org.tron.net";
+
+  private static final MetricRegistry registry = new MetricRegistry();
+
+  private static final AtomicBoolean jmxStarted = new AtomicBoolean(false);
+
+  private static final Map<MessageTypes, Meter> inMessages = newMeters("net.in.messages.");
+  private static final Map<MessageTypes, Meter> inBytes = newMeters("net.in.bytes.");
+  private static final Map<MessageTypes, Meter> outMessages = newMeters("net.out.messages.");
+  private static final Map<MessageTypes, Meter> outBytes = newMeters("net.out.bytes.");
+
+  public static final Timer DECODE = registry.timer("net.decode");
+
+  public static final Timer QUEUE_WAIT = registry.timer("net.queue.wait");
+
+  public static final Timer BLOCK_PROPAGATION = registry.timer("net.block.propagation");
+
+  private NetMetrics() {
+  }
+
+  public static MetricRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * export the registry as MBeans, once.
+   */
+  public static void startJmx() {
+    if (jmxStarted.compareAndSet(false, true)) {
+      JmxReporter.forRegistry(registry).inDomain(DOMAIN)
+          .convertRatesTo(TimeUnit.SECONDS)
+          .convertDurationsTo(TimeUnit.MILLISECONDS)
+          .build().start();
+      logger.info("Export net metrics to JMX domain {}", DOMAIN);
+    }
+  }
+
+  public static void inMessage(byte type, int size) {
+    mark(inMessages, inBytes, MessageTypes.fromByte(type), size);
+  }
+
+  public static void outMessage(byte type, int size) {
+    mark(outMessages, outBytes, MessageTypes.fromByte(type), size);
+  }
+
+  /**
+   * @param requestTime when the request was sent, in milliseconds
+   */
+  public static void requestAnswered(MessageTypes request, long requestTime) {
+    registry.timer("net.rtt." + request)
+        .update(System.currentTimeMillis() - requestTime, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * called the first time we see a block produced at blockTime.
+   */
+  public static void blockReceived(long blockTime) {
+    long delay = System.currentTimeMillis() - blockTime;
+    if (delay >= 0) {
+      BLOCK_PROPAGATION.update(delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static void mark(Map<MessageTypes, Meter> messages, Map<MessageTypes, Meter> bytes,
+      MessageTypes type, int size) {
+    Meter meter = type == null ? null : messages.get(type);
+    if (meter == null) {
+      return;
+    }
+    meter.mark();
+    bytes.get(type).mark(size);
+  }
+
+  private static Map<MessageTypes, Meter> newMeters(String prefix) {
+    Map<MessageTypes, Meter> meters = new EnumMap<>(MessageTypes.class);
+    for (MessageTypes type : MessageTypes.values()) {
+      if (MessageTypes.inP2pRange(type.asByte()) || MessageTypes.inTronRange(type.asByte())) {
+        meters.put(type, registry.meter(prefix + type));
+      }
+    }
+    return meters;
+  }
+}
@@ -0,0 +1,119 @@
+package org.tron.common.overlay.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.bootstrap.AbstractBootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.concurrent.ThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.core.config.args.Args;
+
+/**
+ * Netty transport of the node: native epoll on Linux when available and enabled, NIO otherwise.
+ * All the p2p and discovery channels are created through it, so that they agree on the
+ * transport of their event loops.
+ */
+@Slf4j
+public class NettyTransport {
+
+  private static final int MIN_RECEIVE_BUFFER = 64;
+
+  private static final int INITIAL_RECEIVE_BUFFER = 16 * 1024;
+
+  private static final int MAX_RECEIVE_BUFFER = 256 * 1024;
+
+  private static final boolean EPOLL = Args.getInstance().isNodeEpollEnable()
+      && Epoll.isAvailable();
+
+  static {
+    if (EPOLL) {
+      logger.info("Use epoll transport");
+    } else if (Args.getInstance().isNodeEpollEnable()) {
+      logger.info("Use nio transport, epoll unavailable: {}", Epoll.unavailabilityCause());
+    } else {
+      logger.info("Use nio transport");
+    }
+  }
+
+  private NettyTransport() {
+  }
+
+  public static boolean isEpoll() {
+    return EPOLL;
+  }
+
+  /**
+   * @param threads number of event loops, 0 for the netty default (twice the cores)
+   */
+  public static EventLoopGroup newEventLoopGroup(int threads, String name) {
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat(name + "-%d").build();
+    return EPOLL ? new EpollEventLoopGroup(threads, threadFactory)
+        : new NioEventLoopGroup(threads, threadFactory);
+  }
+
+  public static Class<? extends SocketChannel> socketChannel() {
+    return EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
+  }
+
+  public static Class<? extends ServerSocketChannel> serverSocketChannel() {
+    return EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+  }
+
+  public static Class<? extends DatagramChannel> datagramChannel() {
+    return EPOLL ? EpollDatagramChannel.class : NioDatagramChannel.class;
+  }
+
+  /**
+   * options of the tcp connections to peers, inbound and outbound.
+   */
+  public static void setPeerOptions(AbstractBootstrap<?, ?> bootstrap) {
+    Args args = Args.getInstance();
+    bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+    if (bootstrap instanceof ServerBootstrap) {
+      setChildOptions((ServerBootstrap) bootstrap, args);
+      return;
+    }
+    bootstrap.option(ChannelOption.TCP_NODELAY, args.isNodeTcpNoDelay());
+    bootstrap.option(ChannelOption.RCVBUF_ALLOCATOR, newReceiveBufferAllocator());
+    bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, newWriteBufferWaterMark(args));
+  }
+
+  private static void setChildOptions(ServerBootstrap bootstrap, Args args) {
+    bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+    bootstrap.childOption(ChannelOption.TCP_NODELAY, args.isNodeTcpNoDelay());
+    bootstrap.childOption(ChannelOption.RCVBUF_ALLOCATOR, newReceiveBufferAllocator());
+    bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, newWriteBufferWaterMark(args));
+  }
+
+  /**
+   * grows the read buffer of a busy channel up to 256K and shrinks it back when it is idle.
+   */
+  private static AdaptiveRecvByteBufAllocator newReceiveBufferAllocator() {
+    return new AdaptiveRecvByteBufAllocator(MIN_RECEIVE_BUFFER, INITIAL_RECEIVE_BUFFER,
+        MAX_RECEIVE_BUFFER);
+  }
+
+  private static WriteBufferWaterMark newWriteBufferWaterMark(Args args) {
+    if (args.getNodeWriteBufferHighWaterMark() <= 0) {
+      return WriteBufferWaterMark.DEFAULT;
+    }
+    return new WriteBufferWaterMark(args.getNodeWriteBufferLowWaterMark(),
+        args.getNodeWriteBufferHighWaterMark());
+  }
+}
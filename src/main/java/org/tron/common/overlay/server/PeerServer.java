@@ -22,8 +22,6 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultMessageSizeEstimator;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.logging.LoggingHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,8 +58,10 @@ public class PeerServer {
 
     public void start(int port) {
 
-        bossGroup = new NioEventLoopGroup(1);
-        workerGroup = new NioEventLoopGroup(args.getTcpNettyWorkThreadNum());
+        bossGroup = NettyTransport
+            .newEventLoopGroup(args.getTcpNettyBossThreadNum(), "PeerServerBoss");
+        workerGroup = NettyTransport
+            .newEventLoopGroup(args.getTcpNettyWorkThreadNum(), "PeerServerWorker");
         tronChannelInitializer = ctx.getBean(TronChannelInitializer.class, "");
 
         tronChannelInitializer.setNodeImpl(p2pNode);
@@ -70,11 +70,13 @@ public class PeerServer {
             ServerBootstrap b = new ServerBootstrap();
 
             b.group(bossGroup, workerGroup);
-            b.channel(NioServerSocketChannel.class);
+            b.channel(NettyTransport.serverSocketChannel());
 
+            b.option(ChannelOption.SO_BACKLOG, 1024);
             b.option(ChannelOption.SO_KEEPALIVE, true);
             b.option(ChannelOption.MESSAGE_SIZE_ESTIMATOR, DefaultMessageSizeEstimator.DEFAULT);
             b.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, this.args.getNodeConnectionTimeout());
+            NettyTransport.setPeerOptions(b);
 
             b.handler(new LoggingHandler());
             b.childHandler(tronChannelInitializer);
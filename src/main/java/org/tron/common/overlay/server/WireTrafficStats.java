@@ -17,6 +17,8 @@
  */
 package org.tron.common.overlay.server;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelDuplexHandler;
@@ -32,7 +34,6 @@ import javax.annotation.PreDestroy;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by Anton Nashatyrev on 27.02.2017.
@@ -42,8 +43,8 @@ public class WireTrafficStats  implements Runnable  {
     private final static Logger logger = LoggerFactory.getLogger("WireTrafficStats");
 
     private ScheduledExecutorService executor;
-    public final TrafficStatHandler tcp = new TrafficStatHandler();
-    public final TrafficStatHandler udp = new TrafficStatHandler();
+    public final TrafficStatHandler tcp = new TrafficStatHandler("net.tcp");
+    public final TrafficStatHandler udp = new TrafficStatHandler("net.udp");
 
     public WireTrafficStats() {
         executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("WireTrafficStats-%d").build());
@@ -51,57 +52,59 @@ public class WireTrafficStats  implements Runnable  {
     }
 
     @Override
-    public void run() {}
+    public void run() {
+        logger.debug("tcp: {}, udp: {}", tcp.stats(), udp.stats());
+    }
 
     @PreDestroy
     public void close() {
         executor.shutdownNow();
     }
 
+    /**
+     * counts the bytes on the wire, after compression, in the meters of {@link NetMetrics}.
+     */
     @ChannelHandler.Sharable
     static class TrafficStatHandler extends ChannelDuplexHandler {
-        long outSizeTot;
-        long inSizeTot;
-        AtomicLong outSize = new AtomicLong();
-        AtomicLong inSize = new AtomicLong();
-        AtomicLong outPackets = new AtomicLong();
-        AtomicLong inPackets = new AtomicLong();
-        long lastTime = System.currentTimeMillis();
+        private final Meter outSize;
+        private final Meter inSize;
+        private final Meter outPackets;
+        private final Meter inPackets;
+
+        TrafficStatHandler(String name) {
+            MetricRegistry registry = NetMetrics.getRegistry();
+            outSize = registry.meter(name + ".out.bytes");
+            inSize = registry.meter(name + ".in.bytes");
+            outPackets = registry.meter(name + ".out.packets");
+            inPackets = registry.meter(name + ".in.packets");
+        }
 
         public String stats() {
-            long out = outSize.getAndSet(0);
-            long outPac = outPackets.getAndSet(0);
-            long in = inSize.getAndSet(0);
-            long inPac = inPackets.getAndSet(0);
-            outSizeTot += out;
-            inSizeTot += in;
-            long curTime = System.currentTimeMillis();
-            long d = (curTime - lastTime);
-            long outSpeed = out * 1000 / d;
-            long inSpeed = in * 1000 / d;
-            lastTime = curTime;
-            return "";
+            return String.format("in %.0f B/s %.1f pkt/s, out %.0f B/s %.1f pkt/s, total in %d B, out %d B",
+                inSize.getOneMinuteRate(), inPackets.getOneMinuteRate(),
+                outSize.getOneMinuteRate(), outPackets.getOneMinuteRate(),
+                inSize.getCount(), outSize.getCount());
         }
 
 
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-            inPackets.incrementAndGet();
+            inPackets.mark();
             if (msg instanceof ByteBuf) {
-                inSize.addAndGet(((ByteBuf) msg).readableBytes());
+                inSize.mark(((ByteBuf) msg).readableBytes());
             } else if (msg instanceof DatagramPacket) {
-                inSize.addAndGet(((DatagramPacket) msg).content().readableBytes());
+                inSize.mark(((DatagramPacket) msg).content().readableBytes());
             }
             super.channelRead(ctx, msg);
         }
 
         @Override
         public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
-            outPackets.incrementAndGet();
+            outPackets.mark();
             if (msg instanceof ByteBuf) {
-                outSize.addAndGet(((ByteBuf) msg).readableBytes());
+                outSize.mark(((ByteBuf) msg).readableBytes());
             } else if (msg instanceof DatagramPacket) {
-                outSize.addAndGet(((DatagramPacket) msg).content().readableBytes());
+                outSize.mark(((DatagramPacket) msg).content().readableBytes());
             }
             super.write(ctx, msg, promise);
         }
@@ -341,7 +341,8 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
-  private void updateByBatchInner(Map<byte[], byte[]> rows) throws Exception {
+  private void updateByBatchInner(Map<byte[], byte[]> rows, WriteOptions options)
+      throws Exception {
     try (WriteBatch batch = database.createWriteBatch()) {
       rows.forEach((key, value) -> {
         if (value == null) {
@@ -350,18 +351,22 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
           batch.put(key, value);
         }
       });
-      database.write(batch);
+      database.write(batch, options);
     }
   }
 
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows) {
+    updateByBatch(rows, new WriteOptions());
+  }
+
+  public void updateByBatch(Map<byte[], byte[]> rows, WriteOptions options) {
     resetDbLock.readLock().lock();
     try {
-      updateByBatchInner(rows);
+      updateByBatchInner(rows, options);
     } catch (Exception e) {
       try {
-        updateByBatchInner(rows);
+        updateByBatchInner(rows, options);
       } catch (Exception e1) {
         throw new RuntimeException(e);
       }
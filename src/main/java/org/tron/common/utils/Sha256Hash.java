@@ -23,11 +23,15 @@ import com.google.common.io.ByteStreams;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
@@ -43,6 +47,19 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
   public static final int LENGTH = 32; // bytes
   public static final Sha256Hash ZERO_HASH = wrap(new byte[LENGTH]);
 
+  /**
+   * messages up to this size are serialized in the buffer of the thread before being hashed,
+   * larger ones are streamed into the digest.
+   */
+  private static final int BUFFER_SIZE = 4096;
+
+  // one digest and one serialization buffer per thread, the digest is always left reset
+  private static final ThreadLocal<MessageDigest> digests =
+      ThreadLocal.withInitial(Sha256Hash::newDigest);
+
+  private static final ThreadLocal<byte[]> buffers =
+      ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
   private final byte[] bytes;
 
   private long blockNum;
@@ -123,6 +140,25 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
     return wrap(hash(contents));
   }
 
+  /**
+   * Creates a new instance containing the calculated (one-time) hash of the given bytes, read in
+   * place.
+   */
+  public static Sha256Hash of(ByteString contents) {
+    return wrap(hash(contents));
+  }
+
+  /**
+   * Creates a new instance containing the calculated (one-time) hash of the serialized message,
+   * without materializing the serialized bytes.
+   *
+   * @param message the message on which the hash value is calculated
+   * @return a new instance containing the calculated (one-time) hash
+   */
+  public static Sha256Hash of(MessageLite message) {
+    return wrap(hash(message));
+  }
+
   /**
    * Creates a new instance containing the calculated (one-time) hash of the given file's contents.
    * The file contents are read fully into memory, so this method should only be used with small
@@ -190,11 +226,70 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
    * @return the hash (in big-endian order)
    */
   public static byte[] hash(byte[] input, int offset, int length) {
-    MessageDigest digest = newDigest();
+    MessageDigest digest = digests.get();
     digest.update(input, offset, length);
     return digest.digest();
   }
 
+  /**
+   * Calculates the SHA-256 hash of the concatenation of the two arrays.
+   */
+  public static byte[] hash(byte[] input1, byte[] input2) {
+    MessageDigest digest = digests.get();
+    digest.update(input1);
+    digest.update(input2);
+    return digest.digest();
+  }
+
+  /**
+   * Calculates the SHA-256 hash of the bytes of the ByteString, without copying them.
+   */
+  public static byte[] hash(ByteString input) {
+    MessageDigest digest = digests.get();
+    for (ByteBuffer buffer : input.asReadOnlyByteBufferList()) {
+      digest.update(buffer);
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Calculates the SHA-256 hash of the remaining bytes of the buffer. The position of the buffer
+   * is not changed.
+   */
+  public static byte[] hash(ByteBuffer input) {
+    MessageDigest digest = digests.get();
+    digest.update(input.duplicate());
+    return digest.digest();
+  }
+
+  /**
+   * Calculates the SHA-256 hash of the serialized message. Small messages are serialized in a
+   * buffer of the thread, large ones are streamed into the digest.
+   */
+  public static byte[] hash(MessageLite message) {
+    MessageDigest digest = digests.get();
+    int size = message.getSerializedSize();
+    try {
+      if (size <= BUFFER_SIZE) {
+        byte[] buffer = buffers.get();
+        CodedOutputStream output = CodedOutputStream.newInstance(buffer, 0, size);
+        message.writeTo(output);
+        output.checkNoSpaceLeft();
+        digest.update(buffer, 0, size);
+      } else {
+        CodedOutputStream output = CodedOutputStream
+            .newInstance(new DigestSink(digest), BUFFER_SIZE);
+        message.writeTo(output);
+        output.flush();
+      }
+    } catch (IOException | RuntimeException e) {
+      digest.reset();
+      throw new IllegalStateException("Serializing " + message.getClass().getName()
+          + " for hashing threw an exception (should never happen).", e);
+    }
+    return digest.digest();
+  }
+
   /**
    * Calculates the SHA-256 hash of the given bytes, and then hashes the resulting hash again.
    *
@@ -214,7 +309,7 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
    * @return the double-hash (in big-endian order)
    */
   public static byte[] hashTwice(byte[] input, int offset, int length) {
-    MessageDigest digest = newDigest();
+    MessageDigest digest = digests.get();
     digest.update(input, offset, length);
     return digest.digest(digest.digest());
   }
@@ -225,7 +320,7 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
    */
   public static byte[] hashTwice(byte[] input1, int offset1, int length1,
       byte[] input2, int offset2, int length2) {
-    MessageDigest digest = newDigest();
+    MessageDigest digest = digests.get();
     digest.update(input1, offset1, length1);
     digest.update(input2, offset2, length2);
     return digest.digest(digest.digest());
@@ -295,4 +390,26 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
     }
     return 0;
   }
+
+  /**
+   * OutputStream feeding a digest.
+   */
+  private static class DigestSink extends OutputStream {
+
+    private final MessageDigest digest;
+
+    DigestSink(MessageDigest digest) {
+      this.digest = digest;
+    }
+
+    @Override
+    public void write(int b) {
+      digest.update((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      digest.update(b, off, len);
+    }
+  }
 }
@@ -51,7 +51,6 @@ import org.tron.core.capsule.WitnessCapsule;
 import org.tron.core.db.AccountStore;
 import org.tron.core.db.BandwidthProcessor;
 import org.tron.core.db.Manager;
-import org.tron.core.db.PendingManager;
 import org.tron.core.exception.AccountResourceInsufficientException;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ContractExeException;
@@ -225,8 +224,7 @@ public class Wallet {
       if (dbManager.isTooManyPending()) {
         logger.debug(
             "Manager is busy, pending transaction count:{}, discard the new coming transaction",
-            (dbManager.getPendingTransactions().size() + PendingManager.getTmpTransactions()
-                .size()));
+            dbManager.getPendingTransactions().size());
         return builder.setResult(false).setCode(response_code.SERVER_BUSY).build();
       }
 
@@ -17,12 +17,12 @@ package org.tron.core.capsule;
 
 import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Vector;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +32,7 @@ import org.tron.common.crypto.ECKey.ECDSASignature;
 import org.tron.common.utils.ByteUtil;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.common.utils.Time;
+import org.tron.core.capsule.utils.MerkleProof;
 import org.tron.core.capsule.utils.MerkleTree;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ValidateSignatureException;
@@ -118,6 +119,11 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   private BlockId blockId = new BlockId(Sha256Hash.ZERO_HASH, 0);
 
   private Block block;
+
+  /**
+   * hash of the header raw data, reset whenever it changes.
+   */
+  private volatile Sha256Hash rawHash;
   public boolean generatedByMyself = false;
   private List<TransactionCapsule> transactions = new ArrayList<>();
 
@@ -166,6 +172,14 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     initTxs();
   }
 
+  /**
+   * Assemble a block from its header and the capsules of its transactions, which are kept.
+   */
+  public BlockCapsule(BlockHeader blockHeader, List<TransactionCapsule> transactions) {
+    this.block = Block.newBuilder().setBlockHeader(blockHeader).build();
+    addTransactions(transactions);
+  }
+
   public BlockCapsule(byte[] data) throws BadItemException {
     try {
       this.block = Block.parseFrom(data);
@@ -180,6 +194,24 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     getTransactions().add(pendingTrx);
   }
 
+  /**
+   * Add transactions with a single rebuild of the block.
+   */
+  public void addTransactions(List<TransactionCapsule> pendingTrxs) {
+    Block.Builder blockBuilder = this.block.toBuilder();
+    pendingTrxs.forEach(trx -> blockBuilder.addTransactions(trx.getInstance()));
+    this.block = blockBuilder.build();
+    getTransactions().addAll(pendingTrxs);
+  }
+
+  /**
+   * Number of bytes a transaction adds to the serialized block.
+   */
+  public static int getTransactionSize(TransactionCapsule trx) {
+    return CodedOutputStream
+        .computeMessageSize(Block.TRANSACTIONS_FIELD_NUMBER, trx.getInstance());
+  }
+
   public List<TransactionCapsule> getTransactions() {
     return transactions;
   }
@@ -203,15 +235,17 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   private Sha256Hash getRawHash() {
-    return Sha256Hash.of(this.block.getBlockHeader().getRawData().toByteArray());
+    if (rawHash == null) {
+      rawHash = Sha256Hash.of(this.block.getBlockHeader().getRawData());
+    }
+    return rawHash;
   }
 
   public boolean validateSignature() throws ValidateSignatureException {
     try {
       return Arrays
           .equals(ECKey.signatureToAddress(getRawHash().getBytes(),
-              TransactionCapsule
-                  .getBase64FromByteString(block.getBlockHeader().getWitnessSignature())),
+              block.getBlockHeader().getWitnessSignature().toByteArray()),
               block.getBlockHeader().getRawData().getWitnessAddress().toByteArray());
     } catch (SignatureException e) {
       throw new ValidateSignatureException(e.getMessage());
@@ -220,24 +254,40 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
   public BlockId getBlockId() {
     if (blockId.equals(Sha256Hash.ZERO_HASH)) {
-      blockId = new BlockId(Sha256Hash.of(this.block.getBlockHeader().getRawData().toByteArray()), getNum());
+      blockId = new BlockId(getRawHash(), getNum());
     }
     return blockId;
   }
 
   public Sha256Hash calcMerkleRoot() {
-    List<Transaction> transactionsList = this.block.getTransactionsList();
+    List<TransactionCapsule> transactionsList = getTransactions();
 
     if (CollectionUtils.isEmpty(transactionsList)) {
       return Sha256Hash.ZERO_HASH;
     }
 
-    Vector<Sha256Hash> ids = transactionsList.stream()
-        .map(TransactionCapsule::new)
-        .map(TransactionCapsule::getMerkleHash)
-        .collect(Collectors.toCollection(Vector::new));
+    return MerkleTree.root(getMerkleHashes(transactionsList));
+  }
 
-    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+  /**
+   * proof that the transaction is in this block, null if it is not.
+   */
+  public MerkleProof getMerkleProof(Sha256Hash transactionId) {
+    List<TransactionCapsule> transactionsList = getTransactions();
+    for (int i = 0; i < transactionsList.size(); i++) {
+      if (transactionsList.get(i).getTransactionId().equals(transactionId)) {
+        return MerkleTree.prove(getMerkleHashes(transactionsList), i);
+      }
+    }
+    return null;
+  }
+
+  private static List<Sha256Hash> getMerkleHashes(List<TransactionCapsule> transactionsList) {
+    List<Sha256Hash> hashes = new ArrayList<>(transactionsList.size());
+    for (TransactionCapsule transaction : transactionsList) {
+      hashes.add(transaction.getMerkleHash());
+    }
+    return hashes;
   }
 
   public void setMerkleRoot() {
@@ -247,6 +297,8 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
     this.block = this.block.toBuilder().setBlockHeader(
         this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
+    this.rawHash = null;
+    this.blockId = new BlockId(Sha256Hash.ZERO_HASH, 0);
   }
 
   public Sha256Hash getMerkleRoot() {
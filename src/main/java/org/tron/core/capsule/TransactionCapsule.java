@@ -22,6 +22,8 @@ import static org.tron.protos.Contract.VoteWitnessContract;
 import static org.tron.protos.Contract.WitnessCreateContract;
 import static org.tron.protos.Contract.WitnessUpdateContract;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -36,6 +38,7 @@ import org.tron.common.crypto.ECKey.ECDSASignature;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.core.Wallet;
+import org.tron.core.config.Parameter.NodeConstant;
 import org.tron.core.db.AccountStore;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.ValidateSignatureException;
@@ -58,6 +61,20 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   private Transaction transaction;
   @Setter
   private boolean isVerified = false;
+
+  /**
+   * derived from transaction, reset whenever it changes.
+   */
+  private volatile Sha256Hash rawHash;
+  private volatile Sha256Hash merkleHash;
+  private volatile byte[] data;
+
+  /**
+   * txid -> signatures already verified for it, so that a transaction seen in the pending
+   * pool is not verified again when the block containing it arrives.
+   */
+  private static final Cache<Sha256Hash, List<ByteString>> verifiedSignatures = CacheBuilder
+      .newBuilder().maximumSize(NodeConstant.VERIFIED_SIGNATURE_CACHE_SIZE).build();
   /**
    * constructor TransactionCapsule.
    */
@@ -143,7 +160,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         .setRefBlockHash(ByteString.copyFrom(ByteArray.subArray(blockHash, 8, 16)))
         .setRefBlockBytes(ByteString.copyFrom(ByteArray.subArray(refBlockNum, 6, 8)))
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   /**
@@ -152,7 +169,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public void setExpiration(long expiration) {
     Transaction.raw rawData = this.transaction.getRawData().toBuilder().setExpiration(expiration)
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   public long getExpiration() {
@@ -178,16 +195,28 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         Transaction.Contract.newBuilder().setType(contractType).setParameter(
             Any.pack(message)).build());
     logger.info("Transaction create succeeded！");
-    transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    setInstance(Transaction.newBuilder().setRawData(transactionBuilder.build()).build());
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
-    return Sha256Hash.of(transBytes);
+    if (merkleHash == null) {
+      merkleHash = Sha256Hash.of(getData());
+    }
+    return merkleHash;
   }
 
   private Sha256Hash getRawHash() {
-    return Sha256Hash.of(this.transaction.getRawData().toByteArray());
+    if (rawHash == null) {
+      rawHash = Sha256Hash.of(this.transaction.getRawData());
+    }
+    return rawHash;
+  }
+
+  private void setInstance(Transaction transaction) {
+    this.transaction = transaction;
+    this.rawHash = null;
+    this.merkleHash = null;
+    this.data = null;
   }
 
   /**
@@ -222,7 +251,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     ECKey ecKey = ECKey.fromPrivate(privateKey);
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toBase64().getBytes());
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    setInstance(this.transaction.toBuilder().addSignature(sig).build());
   }
 
   // todo mv this static function to capsule util
@@ -342,13 +371,20 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       throw new ValidateSignatureException("miss sig or contract");
     }
 
+    Sha256Hash hash = getRawHash();
+    List<ByteString> signatures = this.transaction.getSignatureList();
+    if (signatures.equals(verifiedSignatures.getIfPresent(hash))) {
+      isVerified = true;
+      return true;
+    }
+
+    byte[] hashBytes = hash.getBytes();
     List<Transaction.Contract> listContract = this.transaction.getRawData().getContractList();
-    for (int i = 0; i < this.transaction.getSignatureCount(); ++i) {
+    for (int i = 0; i < signatures.size(); ++i) {
       try {
         Transaction.Contract contract = listContract.get(i);
         byte[] owner = getOwner(contract);
-        byte[] address = ECKey.signatureToAddress(getRawHash().getBytes(),
-            getBase64FromByteString(this.transaction.getSignature(i)));
+        byte[] address = ECKey.signatureToAddress(hashBytes, signatures.get(i).toByteArray());
         if (!Arrays.equals(owner, address)) {
           isVerified = false;
           throw new ValidateSignatureException("sig error");
@@ -359,6 +395,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       }
     }
 
+    verifiedSignatures.put(hash, signatures);
     isVerified = true;
     return true;
   }
@@ -367,9 +404,15 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return getRawHash();
   }
 
+  /**
+   * the serialized transaction, computed once. Callers must not modify the returned array.
+   */
   @Override
   public byte[] getData() {
-    return this.transaction.toByteArray();
+    if (data == null) {
+      data = this.transaction.toByteArray();
+    }
+    return data;
   }
 
   public long getSerializedSize() {
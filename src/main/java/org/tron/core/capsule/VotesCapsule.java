@@ -2,7 +2,9 @@ package org.tron.core.capsule;
 
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.common.utils.ByteArray;
 import org.tron.protos.Protocol.Vote;
@@ -66,6 +68,22 @@ public class VotesCapsule implements ProtoCapsule<Votes> {
         .build();
   }
 
+  /**
+   * what these votes change in the vote count of each witness at maintenance: the new votes minus
+   * the old ones, nothing while there are no new votes.
+   */
+  public Map<ByteString, Long> getVoteChanges() {
+    Map<ByteString, Long> changes = new HashMap<>();
+    if (getNewVotes().isEmpty()) {
+      return changes;
+    }
+    getOldVotes().forEach(vote ->
+        changes.merge(vote.getVoteAddress(), -vote.getVoteCount(), Long::sum));
+    getNewVotes().forEach(vote ->
+        changes.merge(vote.getVoteAddress(), vote.getVoteCount(), Long::sum));
+    return changes;
+  }
+
   public byte[] createDbKey() {
     return getAddress().toByteArray();
   }
@@ -0,0 +1,54 @@
+package org.tron.core.capsule.utils;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import lombok.Getter;
+import org.tron.common.utils.Sha256Hash;
+
+/**
+ * Inclusion proof of a leaf in a {@link MerkleTree}: the position of the leaf, the number of
+ * leaves and the siblings met on the way to the root. Levels where the node is promoted without
+ * a sibling have no entry.
+ */
+@Getter
+public class MerkleProof {
+
+    private final int index;
+    private final int leafCount;
+    private final List<Sha256Hash> siblings;
+
+    public MerkleProof(int index, int leafCount, List<Sha256Hash> siblings) {
+        this.index = index;
+        this.leafCount = leafCount;
+        this.siblings = Collections.unmodifiableList(siblings);
+    }
+
+    /**
+     * root of the tree that has leaf at index, null if the proof is malformed.
+     */
+    public Sha256Hash computeRoot(Sha256Hash leaf) {
+        if (index < 0 || index >= leafCount) {
+            return null;
+        }
+        Iterator<Sha256Hash> path = siblings.iterator();
+        byte[] hash = leaf.getBytes();
+        int position = index;
+        for (int size = leafCount; size > 1; size = (size + 1) / 2) {
+            if ((position ^ 1) < size) {
+                if (!path.hasNext()) {
+                    return null;
+                }
+                byte[] sibling = path.next().getBytes();
+                hash = (position & 1) == 0 ? MerkleTree.hash(hash, sibling)
+                        : MerkleTree.hash(sibling, hash);
+            }
+            position >>= 1;
+        }
+        return path.hasNext() ? null : Sha256Hash.wrap(hash);
+    }
+
+    public boolean verify(Sha256Hash leaf, Sha256Hash root) {
+        return root.equals(computeRoot(leaf));
+    }
+}
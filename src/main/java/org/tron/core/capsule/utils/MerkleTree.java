@@ -1,90 +1,127 @@
 package org.tron.core.capsule.utils;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.tron.common.utils.Sha256Hash;
 
-@Getter
+/**
+ * Merkle tree of the transactions of a block.
+ *
+ * <p>Every level is hashed by pairs, sha256(left || right), and the last node of an odd level is
+ * promoted to the next level unchanged. The static methods work on flat arrays of 32 bytes, with
+ * the digest of the thread, and keep no state, so blocks can be validated on several threads at
+ * once.
+ */
 public class MerkleTree {
-    private static volatile MerkleTree instance;
-    private List<Sha256Hash> hashList;
-    private List<Leaf> leaves;
-    private Leaf root;
 
-    public static MerkleTree getInstance() {
-        if (instance == null) {
-            synchronized (MerkleTree.class) {
-                if (instance == null) {
-                    instance = new MerkleTree();
-                }
-            }
-        }
-        return instance;
-    }
+    /**
+     * levels with at least this number of pairs are hashed on the fork-join pool.
+     */
+    public static final int PARALLEL_THRESHOLD = 1024;
 
-    public MerkleTree createTree(List<Sha256Hash> hashList) {
-        this.leaves = new ArrayList<>();
-        this.hashList = hashList;
-        List<Leaf> leaves = createLeaves(hashList);
+    private MerkleTree() {
+    }
 
-        while (leaves.size() > 1) {
-            leaves = createParentLeaves(leaves);
+    /**
+     * root of the tree of hashList.
+     */
+    public static Sha256Hash root(List<Sha256Hash> hashList) {
+        checkArgument(!hashList.isEmpty(), "empty merkle tree");
+        byte[][] level = toArray(hashList);
+        while (level.length > 1) {
+            level = parentLevel(level);
         }
+        return hashList.size() == 1 ? hashList.get(0) : Sha256Hash.wrap(level[0]);
+    }
 
-        this.root = leaves.get(0);
-        return this;
+    /**
+     * proof that hashList.get(index) is a leaf of the tree of hashList.
+     */
+    public static MerkleProof prove(List<Sha256Hash> hashList, int index) {
+        checkElementIndex(index, hashList.size());
+        List<Sha256Hash> siblings = new ArrayList<>();
+        byte[][] level = toArray(hashList);
+        int position = index;
+        while (level.length > 1) {
+            int sibling = position ^ 1;
+            if (sibling < level.length) {
+                siblings.add(Sha256Hash.wrap(level[sibling]));
+            }
+            level = parentLevel(level);
+            position >>= 1;
+        }
+        return new MerkleProof(index, hashList.size(), siblings);
     }
 
-    private List<Leaf> createParentLeaves(List<Leaf> leaves) {
-        int step = 2;
-        int len = leaves.size();
-        return IntStream.iterate(0, i -> i + step)
-                .limit(len)
-                .filter(i -> i < len)
-                .mapToObj(i -> {
-                    Leaf right = i + 1 < len ? leaves.get(i + 1) : null;
-                    return createLeaf(leaves.get(i), right);
-                }).collect(Collectors.toList());
+    /**
+     * build the whole tree of hashList, to walk it.
+     *
+     * @return the root of the tree
+     */
+    public static Leaf createTree(List<Sha256Hash> hashList) {
+        List<Leaf> level = new ArrayList<>(hashList.size());
+        for (Sha256Hash hash : hashList) {
+            level.add(new Leaf(hash, null, null));
+        }
+        do {
+            level = createParentLeaves(level);
+        } while (level.size() > 1);
+
+        return level.get(0);
     }
 
-    private List<Leaf> createLeaves(List<Sha256Hash> hashList) {
-        int step = 2;
-        int len = hashList.size();
-        return IntStream.iterate(0, i -> i + step)
-                .limit(len)
-                .filter(i -> i < len)
-                .mapToObj(i -> {
-                    Leaf right = i + 1 < len ? createLeaf(hashList.get(i + 1)) : null;
-                    return createLeaf(createLeaf(hashList.get(i)), right);
-                }).collect(Collectors.toList());
+    static byte[] hash(byte[] left, byte[] right) {
+        return Sha256Hash.hash(left, right);
     }
 
-    private Leaf createLeaf(Leaf left, Leaf right) {
-        Leaf leaf = new Leaf();
-        leaf.hash = right == null ? left.hash : computeHash(left.hash, right.hash);
-        leaf.left = left;
-        leaf.right = right;
-        this.leaves.add(leaf);
-        return leaf;
+    private static byte[][] toArray(List<Sha256Hash> hashList) {
+        byte[][] level = new byte[hashList.size()][];
+        for (int i = 0; i < level.length; i++) {
+            level[i] = hashList.get(i).getBytes();
+        }
+        return level;
     }
 
-    private Leaf createLeaf(Sha256Hash hash) {
-        Leaf leaf = new Leaf();
-        leaf.hash = hash;
-        this.leaves.add(leaf);
-        return leaf;
+    private static byte[][] parentLevel(byte[][] level) {
+        int pairs = level.length / 2;
+        byte[][] parents = new byte[(level.length + 1) / 2][];
+        if (pairs >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, pairs).parallel()
+                    .forEach(i -> parents[i] = hash(level[2 * i], level[2 * i + 1]));
+        } else {
+            for (int i = 0; i < pairs; i++) {
+                parents[i] = hash(level[2 * i], level[2 * i + 1]);
+            }
+        }
+        if (pairs < parents.length) {
+            parents[pairs] = level[level.length - 1];
+        }
+        return parents;
     }
 
-    private Sha256Hash computeHash(Sha256Hash leftHash, Sha256Hash rightHash) {
-        return Sha256Hash.of(leftHash.getByteString().concat(rightHash.getByteString()).toByteArray());
+    private static List<Leaf> createParentLeaves(List<Leaf> level) {
+        List<Leaf> parents = new ArrayList<>((level.size() + 1) / 2);
+        for (int i = 0; i < level.size(); i += 2) {
+            Leaf left = level.get(i);
+            Leaf right = i + 1 < level.size() ? level.get(i + 1) : null;
+            Sha256Hash hash = right == null ? left.hash
+                    : Sha256Hash.wrap(hash(left.hash.getBytes(), right.hash.getBytes()));
+            parents.add(new Leaf(hash, left, right));
+        }
+        return parents;
     }
 
     @Getter
-    public class Leaf {
-        private Sha256Hash hash;
-        private Leaf left, right;
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Leaf {
+        private final Sha256Hash hash;
+        private final Leaf left, right;
     }
-}
\ No newline at end of file
+}
@@ -24,6 +24,7 @@ public interface Parameter {
     long ONE_DAY_NET_LIMIT = 57_600_000_000L;
     long WINDOW_SIZE_MS = 24 * 3600 * 1000L;
     long CREATE_NEW_ACCOUNT_BANDWIDTH_COST = 200;
+    int JOURNAL_CHECKPOINT_BLOCKS = 100; // blocks between two syncs of the stores
   }
 
   interface NodeConstant {
@@ -33,8 +34,11 @@ public interface Parameter {
     long MAX_BLOCKS_IN_PROCESS = 400;
     long MAX_BLOCKS_ALREADY_FETCHED = 800;
     long MAX_BLOCKS_SYNC_FROM_ONE_PEER = 1000;
+    int SYNC_WINDOW_INIT = 100;
+    int SYNC_WINDOW_MIN = 10;
     long SYNC_CHAIN_LIMIT_NUM = 500;
     int MAX_TRANSACTION_PENDING = 2000;
+    int VERIFIED_SIGNATURE_CACHE_SIZE = 100_000;
   }
 
   interface NetConstants {
@@ -48,7 +52,10 @@ public interface Parameter {
     long NET_MAX_TRX_PER_SECOND = 700L;
     long MAX_TRX_PER_PEER = 200L;
     int NET_MAX_INV_SIZE_IN_MINUTES = 2;
+    long MAX_INV_SIZE_PER_PEER = 2L * MAX_INVENTORY_SIZE_IN_MINUTES * 60 * NET_MAX_TRX_PER_SECOND;
     int MSG_CACHE_DURATION_IN_BLOCKS = 5;
+    int MAX_PENDING_DECODES = 64;
+    int COMPRESS_THRESHOLD = 1024;
   }
 
   interface DatabaseConstants {
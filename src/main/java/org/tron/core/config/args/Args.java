@@ -130,6 +130,10 @@ public class Args {
   @Setter
   private int nodeMaxActiveNodes;
 
+  @Getter
+  @Setter
+  private int nodeMaxPendingTransactions;
+
   @Getter
   @Setter
   private int minParticipationRate;
@@ -175,6 +179,10 @@ public class Args {
   @Setter
   private int rpcPort;
 
+  @Getter
+  @Setter
+  private int metricsRpcPort;
+
   @Getter
   @Setter
   @Parameter(names = {"--rpc-thread"}, description = "Num of gRPC thread")
@@ -221,6 +229,30 @@ public class Args {
   @Setter
   private int udpNettyWorkThreadNum;
 
+  @Getter
+  @Setter
+  private int tcpNettyBossThreadNum;
+
+  @Getter
+  @Setter
+  private boolean nodeEpollEnable;
+
+  @Getter
+  @Setter
+  private boolean nodeTcpNoDelay;
+
+  @Getter
+  @Setter
+  private int nodeWriteBufferLowWaterMark;
+
+  @Getter
+  @Setter
+  private int nodeWriteBufferHighWaterMark;
+
+  @Getter
+  @Setter
+  private boolean nodeCompressionEnable;
+
   @Getter
   @Setter
   @Parameter(names = {"--trust-node"}, description = "Trust node addr")
@@ -270,6 +302,7 @@ public class Args {
     INSTANCE.nodeActive = Collections.emptyList();
     INSTANCE.nodeChannelReadTimeout = 0;
     INSTANCE.nodeMaxActiveNodes = 0;
+    INSTANCE.nodeMaxPendingTransactions = 0;
     INSTANCE.minParticipationRate = 0;
     INSTANCE.nodeListenPort = 0;
     INSTANCE.nodeDiscoveryBindIp = "";
@@ -279,9 +312,16 @@ public class Args {
     //INSTANCE.syncNodeCount = 0;
     INSTANCE.nodeP2pVersion = 0;
     INSTANCE.rpcPort = 0;
+    INSTANCE.metricsRpcPort = 0;
     INSTANCE.maintenanceTimeInterval = 0;
     INSTANCE.tcpNettyWorkThreadNum = 0;
     INSTANCE.udpNettyWorkThreadNum = 0;
+    INSTANCE.tcpNettyBossThreadNum = 0;
+    INSTANCE.nodeEpollEnable = false;
+    INSTANCE.nodeTcpNoDelay = false;
+    INSTANCE.nodeWriteBufferLowWaterMark = 0;
+    INSTANCE.nodeWriteBufferHighWaterMark = 0;
+    INSTANCE.nodeCompressionEnable = false;
     INSTANCE.p2pNodeId = "";
     INSTANCE.solidityNode = false;
     INSTANCE.trustNodeAddr = "";
@@ -356,6 +396,10 @@ public class Args {
         .filter(StringUtils::isNotEmpty)
         .orElse(Storage.getIndexDirectoryFromConfig(config)));
 
+    INSTANCE.storage.setWriteBackCacheSize(Storage.getWriteBackCacheSizeFromConfig(config));
+
+    INSTANCE.storage.setSnapshotRevoking(Storage.getSnapshotRevokingFromConfig(config));
+
     INSTANCE.storage.setPropertyMapFromConfig(config);
 
     INSTANCE.seedNode = new SeedNode();
@@ -410,6 +454,10 @@ public class Args {
     INSTANCE.nodeMaxActiveNodes =
         config.hasPath("node.maxActiveNodes") ? config.getInt("node.maxActiveNodes") : 0;
 
+    INSTANCE.nodeMaxPendingTransactions =
+        config.hasPath("node.maxPendingTransactions") ? config.getInt("node.maxPendingTransactions")
+            : 0;
+
     INSTANCE.minParticipationRate =
         config.hasPath("node.minParticipationRate") ? config.getInt("node.minParticipationRate")
             : 0;
@@ -436,6 +484,9 @@ public class Args {
     INSTANCE.rpcPort =
         config.hasPath("node.rpc.port") ? config.getInt("node.rpc.port") : 50051;
 
+    INSTANCE.metricsRpcPort =
+        config.hasPath("node.rpc.metricsPort") ? config.getInt("node.rpc.metricsPort") : 0;
+
     INSTANCE.rpcThreadNum =
         config.hasPath("node.rpc.thread") ? config.getInt("node.rpc.thread")
             : Runtime.getRuntime().availableProcessors() / 2;
@@ -470,6 +521,24 @@ public class Args {
     INSTANCE.udpNettyWorkThreadNum = config.hasPath("node.udpNettyWorkThreadNum") ? config
         .getInt("node.udpNettyWorkThreadNum") : 1;
 
+    INSTANCE.tcpNettyBossThreadNum = config.hasPath("node.tcpNettyBossThreadNum") ? config
+        .getInt("node.tcpNettyBossThreadNum") : 1;
+
+    INSTANCE.nodeEpollEnable =
+        !config.hasPath("node.epoll") || config.getBoolean("node.epoll");
+
+    INSTANCE.nodeTcpNoDelay =
+        !config.hasPath("node.tcpNoDelay") || config.getBoolean("node.tcpNoDelay");
+
+    INSTANCE.nodeWriteBufferLowWaterMark = config.hasPath("node.writeBuffer.lowWaterMark")
+        ? config.getInt("node.writeBuffer.lowWaterMark") : 512 * 1024;
+
+    INSTANCE.nodeWriteBufferHighWaterMark = config.hasPath("node.writeBuffer.highWaterMark")
+        ? config.getInt("node.writeBuffer.highWaterMark") : 2 * 1024 * 1024;
+
+    INSTANCE.nodeCompressionEnable =
+        !config.hasPath("node.compression") || config.getBoolean("node.compression");
+
     if (StringUtils.isEmpty(INSTANCE.trustNodeAddr)) {
       INSTANCE.trustNodeAddr =
           config.hasPath("node.trustNode") ? config.getString("node.trustNode") : null;
@@ -46,6 +46,8 @@ public class Storage {
   private static final String DB_DIRECTORY_CONFIG_KEY = "storage.db.directory";
   private static final String INDEX_DIRECTORY_CONFIG_KEY = "storage.index.directory";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
+  private static final String WRITE_BACK_CACHE_SIZE_CONFIG_KEY = "storage.writeBackCacheSize";
+  private static final String SNAPSHOT_REVOKING_CONFIG_KEY = "storage.snapshotRevoking";
 
   private static final String NAME_CONFIG_KEY = "name";
   private static final String PATH_CONFIG_KEY = "path";
@@ -64,6 +66,11 @@ public class Storage {
   private static final String DEFAULT_DB_DIRECTORY = "database";
   private static final String DEFAULT_INDEX_DIRECTORY = "index";
 
+  /**
+   * Default max number of capsules kept by the write-back cache of one store
+   */
+  private static final int DEFAULT_WRITE_BACK_CACHE_SIZE = 100_000;
+
   /**
    * Default values of db options:
    * <p>
@@ -93,6 +100,20 @@ public class Storage {
   @Setter
   private String indexDirectory;
 
+  /**
+   * Max number of capsules kept by the write-back cache of one store
+   */
+  @Getter
+  @Setter
+  private int writeBackCacheSize = DEFAULT_WRITE_BACK_CACHE_SIZE;
+
+  /**
+   * Keep the not solidified blocks as in-memory snapshots instead of undo logs
+   */
+  @Getter
+  @Setter
+  private boolean snapshotRevoking;
+
   /**
    * Other custom database configurations
    */
@@ -119,6 +140,16 @@ public class Storage {
         config.getString(INDEX_DIRECTORY_CONFIG_KEY) : DEFAULT_INDEX_DIRECTORY;
   }
 
+  public static int getWriteBackCacheSizeFromConfig(final Config config) {
+    return config.hasPath(WRITE_BACK_CACHE_SIZE_CONFIG_KEY) ?
+        config.getInt(WRITE_BACK_CACHE_SIZE_CONFIG_KEY) : DEFAULT_WRITE_BACK_CACHE_SIZE;
+  }
+
+  public static boolean getSnapshotRevokingFromConfig(final Config config) {
+    return config.hasPath(SNAPSHOT_REVOKING_CONFIG_KEY)
+        && config.getBoolean(SNAPSHOT_REVOKING_CONFIG_KEY);
+  }
+
   /**
    * Set propertyMap of Storage object from Config
    *
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -30,6 +31,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
   private int activeDialog = 0;
   private AtomicInteger maxSize = new AtomicInteger(DEFAULT_STACK_MAX_SIZE);
   private WriteOptions writeOptions = new WriteOptions().sync(true);
+  private List<Runnable> revokeListeners = new CopyOnWriteArrayList<>();
 
   @Override
   public Dialog buildDialog() {
@@ -186,6 +188,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
       disabled = false;
     }
     --activeDialog;
+    revokeListeners.forEach(Runnable::run);
   }
 
   @Override
@@ -218,6 +221,12 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     } finally {
       disabled = false;
     }
+    revokeListeners.forEach(Runnable::run);
+  }
+
+  @Override
+  public void addRevokeListener(Runnable listener) {
+    revokeListeners.add(listener);
   }
 
   @Override
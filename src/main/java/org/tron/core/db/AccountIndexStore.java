@@ -16,6 +16,7 @@ public class AccountIndexStore extends TronStoreWithRevoking<BytesCapsule> {
   @Autowired
   public AccountIndexStore(@Value("account-index") String dbName) {
     super(dbName);
+    enableWriteBack();
   }
 
   public void put(AccountCapsule accountCapsule) {
@@ -33,7 +34,7 @@ public class AccountIndexStore extends TronStoreWithRevoking<BytesCapsule> {
 
   @Override
   public BytesCapsule get(byte[] key) {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     if (ArrayUtils.isEmpty(value)) {
       return null;
     }
@@ -42,7 +43,7 @@ public class AccountIndexStore extends TronStoreWithRevoking<BytesCapsule> {
 
   @Override
   public boolean has(byte[] key) {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     if (ArrayUtils.isEmpty(value)) {
       return false;
     }
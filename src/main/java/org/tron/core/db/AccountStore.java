@@ -8,7 +8,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -25,12 +24,12 @@ public class AccountStore extends TronStoreWithRevoking<AccountCapsule> {
   @Autowired
   private AccountStore(@Value("account") String dbName) {
     super(dbName);
+    enableWriteBackCache(AccountCapsule::new, item -> new AccountCapsule(item.getInstance()));
   }
 
   @Override
   public AccountCapsule get(byte[] key) {
-    byte[] value = dbSource.getData(key);
-    return ArrayUtils.isEmpty(value) ? null : new AccountCapsule(value);
+    return getCapsule(key);
   }
 
   /**
@@ -40,7 +39,7 @@ public class AccountStore extends TronStoreWithRevoking<AccountCapsule> {
    */
   @Override
   public boolean has(byte[] key) {
-    byte[] account = dbSource.getData(key);
+    byte[] account = getValue(key);
     return null != account;
   }
 
@@ -56,27 +55,21 @@ public class AccountStore extends TronStoreWithRevoking<AccountCapsule> {
    * Max TRX account.
    */
   public AccountCapsule getSun() {
-    byte[] data = dbSource.getData(assertsAddress.get("Sun"));
-    AccountCapsule accountCapsule = new AccountCapsule(data);
-    return accountCapsule;
+    return getCapsule(assertsAddress.get("Sun"));
   }
 
   /**
    * Min TRX account.
    */
   public AccountCapsule getBlackhole() {
-    byte[] data = dbSource.getData(assertsAddress.get("Blackhole"));
-    AccountCapsule accountCapsule = new AccountCapsule(data);
-    return accountCapsule;
+    return getCapsule(assertsAddress.get("Blackhole"));
   }
 
   /**
    * Get foundation account info.
    */
   public AccountCapsule getZion() {
-    byte[] data = dbSource.getData(assertsAddress.get("Zion"));
-    AccountCapsule accountCapsule = new AccountCapsule(data);
-    return accountCapsule;
+    return getCapsule(assertsAddress.get("Zion"));
   }
 
   public static void setAccount(com.typesafe.config.Config config) {
@@ -91,7 +84,7 @@ public class AccountStore extends TronStoreWithRevoking<AccountCapsule> {
 
   @Override
   public Iterator<Entry<byte[], AccountCapsule>> iterator() {
-    return new AccountIterator(dbSource.iterator());
+    return new AccountIterator(getDbIterator());
   }
 
   @Override
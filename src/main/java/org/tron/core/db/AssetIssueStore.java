@@ -1,5 +1,6 @@
 package org.tron.core.db;
 
+import com.google.common.collect.Streams;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -21,11 +22,12 @@ public class AssetIssueStore extends TronStoreWithRevoking<AssetIssueCapsule> {
   @Autowired
   private AssetIssueStore(@Value("asset-issue") String dbName) {
     super(dbName);
+    enableWriteBack();
   }
 
   @Override
   public AssetIssueCapsule get(byte[] key) {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     return ArrayUtils.isEmpty(value) ? null : new AssetIssueCapsule(value);
   }
 
@@ -36,7 +38,7 @@ public class AssetIssueStore extends TronStoreWithRevoking<AssetIssueCapsule> {
    */
   @Override
   public boolean has(byte[] key) {
-    byte[] assetIssue = dbSource.getData(key);
+    byte[] assetIssue = getValue(key);
     logger.info("name is {}, asset issue is {}", key, assetIssue);
     return null != assetIssue;
   }
@@ -53,14 +55,14 @@ public class AssetIssueStore extends TronStoreWithRevoking<AssetIssueCapsule> {
    * get all asset issues.
    */
   public List<AssetIssueCapsule> getAllAssetIssues() {
-    return dbSource.allKeys().stream()
-        .map(this::get)
+    return Streams.stream(getDbIterator())
+        .map(entry -> new AssetIssueCapsule(entry.getValue()))
         .collect(Collectors.toList());
   }
 
   @Override
   public Iterator<Entry<byte[], AssetIssueCapsule>> iterator() {
-    return new AssetIssueIterator(dbSource.iterator());
+    return new AssetIssueIterator(getDbIterator());
   }
 
   @Override
@@ -20,6 +20,7 @@ public class BlockIndexStore extends TronStoreWithRevoking<BytesCapsule> {
   @Autowired
   public BlockIndexStore(@Value("block-index") String dbName) {
     super(dbName);
+    enableWriteBack();
 
   }
 
@@ -37,7 +38,7 @@ public class BlockIndexStore extends TronStoreWithRevoking<BytesCapsule> {
   @Override
   public BytesCapsule get(byte[] key)
       throws ItemNotFoundException {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     if (ArrayUtils.isEmpty(value)) {
       throw new ItemNotFoundException("number: " + Arrays.toString(key) + " is not found!");
     }
@@ -0,0 +1,122 @@
+package org.tron.core.db;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import lombok.extern.slf4j.Slf4j;
+import org.iq80.leveldb.WriteOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tron.core.db.common.iterator.DBIterator;
+
+/**
+ * Redo journal of the store writes of the applied blocks. The rows of a block, the new head
+ * included, are written here in one synced batch before the stores get them without sync, so a
+ * block reaches the disk atomically with a single fsync. On startup the journaled rows are
+ * replayed into the stores; they are dropped once the stores are synced at a checkpoint.
+ *
+ * <p>A key is the db name of the store and the key in that store, a value is the row prefixed by
+ * PUT or DELETE. Only the latest row of a key is kept, so a replay is idempotent.
+ */
+@Slf4j
+@Component
+public class BlockJournal extends TronDatabase<byte[]> {
+
+  private static final byte DELETE = 0;
+  private static final byte PUT = 1;
+
+  @Autowired
+  private BlockJournal(@Value("block_journal") String dbName) {
+    super(dbName);
+  }
+
+  @Override
+  public void put(byte[] key, byte[] item) {
+    dbSource.putData(key, item);
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    dbSource.deleteData(key);
+  }
+
+  @Override
+  public byte[] get(byte[] key) {
+    return dbSource.getData(key);
+  }
+
+  @Override
+  public boolean has(byte[] key) {
+    return dbSource.getData(key) != null;
+  }
+
+  /**
+   * write the rows of one block, by db name of their store, in a single synced batch. Null
+   * values are deletes.
+   */
+  public void append(Map<String, Map<byte[], byte[]>> rowsByStore) {
+    Map<byte[], byte[]> batch = new HashMap<>();
+    rowsByStore.forEach((dbName, rows) -> rows.forEach((key, value) ->
+        batch.put(encodeKey(dbName, key), encodeValue(value))));
+    if (!batch.isEmpty()) {
+      dbSource.updateByBatch(batch, new WriteOptions().sync(true));
+    }
+  }
+
+  /**
+   * the journaled rows by db name of their store, null values for deletes.
+   */
+  public Map<String, Map<byte[], byte[]>> load() {
+    Map<String, Map<byte[], byte[]>> rowsByStore = new HashMap<>();
+    try (DBIterator iterator = dbSource.iterator()) {
+      while (iterator.hasNext()) {
+        Entry<byte[], byte[]> entry = iterator.next();
+        byte[] journalKey = entry.getKey();
+        int nameLength = journalKey[0];
+        String dbName = new String(journalKey, 1, nameLength, StandardCharsets.UTF_8);
+        byte[] key = Arrays.copyOfRange(journalKey, 1 + nameLength, journalKey.length);
+        byte[] value = entry.getValue();
+        rowsByStore.computeIfAbsent(dbName, k -> new HashMap<>())
+            .put(key, value[0] == PUT ? Arrays.copyOfRange(value, 1, value.length) : null);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return rowsByStore;
+  }
+
+  /**
+   * drop all rows, once the stores they were written to are synced. Not synced itself: until it
+   * is durable, a replay only writes again what the stores already hold.
+   */
+  public void truncate() {
+    Map<byte[], byte[]> batch = new HashMap<>();
+    dbSource.allKeys().forEach(key -> batch.put(key, null));
+    if (!batch.isEmpty()) {
+      dbSource.updateByBatch(batch);
+    }
+  }
+
+  private static byte[] encodeKey(String dbName, byte[] key) {
+    byte[] name = dbName.getBytes(StandardCharsets.UTF_8);
+    byte[] journalKey = new byte[1 + name.length + key.length];
+    journalKey[0] = (byte) name.length;
+    System.arraycopy(name, 0, journalKey, 1, name.length);
+    System.arraycopy(key, 0, journalKey, 1 + name.length, key.length);
+    return journalKey;
+  }
+
+  private static byte[] encodeValue(byte[] value) {
+    if (value == null) {
+      return new byte[]{DELETE};
+    }
+    byte[] journalValue = new byte[1 + value.length];
+    journalValue[0] = PUT;
+    System.arraycopy(value, 0, journalValue, 1, value.length);
+    return journalValue;
+  }
+}
@@ -42,6 +42,7 @@ public class BlockStore extends TronStoreWithRevoking<BlockCapsule> {
   @Autowired
   private BlockStore(@Value("block") String dbName) {
     super(dbName);
+    enableWriteBack();
   }
 
   @Override
@@ -54,7 +55,7 @@ public class BlockStore extends TronStoreWithRevoking<BlockCapsule> {
 
   @Override
   public BlockCapsule get(byte[] key) throws ItemNotFoundException, BadItemException {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     if (ArrayUtils.isEmpty(value)) {
       throw new ItemNotFoundException();
     }
@@ -93,7 +94,7 @@ public class BlockStore extends TronStoreWithRevoking<BlockCapsule> {
 
   @Override
   public boolean has(byte[] key) {
-    byte[] block = dbSource.getData(key);
+    byte[] block = getValue(key);
     logger.info("address is {}, block is {}", key, block);
     return null != block;
   }
@@ -2,8 +2,13 @@ package org.tron.core.db;
 
 import com.google.protobuf.ByteString;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.IntStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +44,8 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
 
   private static final byte[] NEXT_MAINTENANCE_TIME = "NEXT_MAINTENANCE_TIME".getBytes();
 
+  private static final byte[] VOTES_PERIOD = "VOTES_PERIOD".getBytes();
+
   private static final byte[] BLOCK_FILLED_SLOTS_NUMBER = "BLOCK_FILLED_SLOTS_NUMBER".getBytes();
 
   private static final byte[] MAX_VOTE_NUMBER = "MAX_VOTE_NUMBER".getBytes();
@@ -87,9 +94,18 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
 
   private static final byte[] TOTAL_CREATE_WITNESS_COST = "TOTAL_CREATE_WITNESS_FEE".getBytes();
 
+  // decoded properties, dropped on write and cleared when the revoking store revokes
+  private final Map<ByteArrayWrapper, Object> mirror = new ConcurrentHashMap<>();
+
+  // head of the last applied block, replaced per block and when the revoking store revokes
+  private volatile HeadProperties headProperties;
+
   @Autowired
   private DynamicPropertiesStore(@Value("properties") String dbName) {
     super(dbName);
+    enableWriteBackCache(BytesCapsule::new, item -> item);
+    addRevokeListener(mirror::clear);
+    addRevokeListener(this::updateHeadProperties);
     try {
       this.getMaintenanceTimeInterval();
     } catch (IllegalArgumentException e) {
@@ -296,6 +312,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
           Long.parseLong(Args.getInstance().getGenesisBlock().getTimestamp()));
     }
 
+    updateHeadProperties();
   }
 
   @Override
@@ -303,6 +320,73 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
     return null;
   }
 
+  @Override
+  public void put(byte[] key, BytesCapsule item) {
+    super.put(key, item);
+    mirror.remove(new ByteArrayWrapper(key));
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    super.delete(key);
+    mirror.remove(new ByteArrayWrapper(key));
+  }
+
+  @Override
+  public void replay(Map<byte[], byte[]> rows) {
+    super.replay(rows);
+    mirror.clear();
+    updateHeadProperties();
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    mirror.clear();
+    headProperties = null;
+  }
+
+  /**
+   * get the decoded value of key, decoding it only once until the next write.
+   */
+  @SuppressWarnings("unchecked")
+  private <V> V getMirrored(byte[] key, Function<byte[], V> decoder) {
+    return (V) mirror.computeIfAbsent(new ByteArrayWrapper(key),
+        k -> Optional.ofNullable(getValue(key)).map(decoder).orElse(null));
+  }
+
+  /**
+   * the properties of the head as of the last applied block, without reading the store. While a
+   * block is processed, it still describes the previous head.
+   */
+  public HeadProperties getHeadProperties() {
+    return headProperties;
+  }
+
+  /**
+   * publish the current head properties, once a block is applied or the head is initialized.
+   */
+  public void updateHeadProperties() {
+    headProperties = new HeadProperties(getLatestBlockHeaderNumber(),
+        getLatestBlockHeaderTimestamp(), getLatestSolidifiedBlockNum(), getNextMaintenanceTime(),
+        getStateFlag());
+  }
+
+  /**
+   * The head number, timestamp, solidified number, next maintenance time and state flag of one
+   * block, consistent with each other.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static final class HeadProperties {
+
+    private final long number;
+    private final long timestamp;
+    private final long solidifiedBlockNum;
+    private final long nextMaintenanceTime;
+    private final int stateFlag;
+  }
+
   @Override
   public boolean has(byte[] key) {
     return false;
@@ -338,8 +422,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getMaintenanceTimeInterval() {
-    return Optional.ofNullable(this.dbSource.getData(MAINTENANCE_TIME_INTERVAL))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(MAINTENANCE_TIME_INTERVAL, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MAINTENANCE_TIME_INTERVAL"));
   }
@@ -351,7 +434,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public double getVoteRewardRate() {
-    return Optional.ofNullable(this.dbSource.getData(VOTE_REWARD_RATE))
+    return Optional.ofNullable(this.getValue(VOTE_REWARD_RATE))
         .map(ByteArray::toStr)
         .map(Double::parseDouble)
         .orElseThrow(
@@ -365,8 +448,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getSingleRepeat() {
-    return Optional.ofNullable(this.dbSource.getData(SINGLE_REPEAT))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(SINGLE_REPEAT, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found SINGLE_REPEAT"));
   }
@@ -378,8 +460,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getBlockFilledSlotsIndex() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_FILLED_SLOTS_INDEX))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(BLOCK_FILLED_SLOTS_INDEX, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found BLOCK_FILLED_SLOTS_INDEX"));
   }
@@ -391,8 +472,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMaxFrozenNumber() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_NUMBER))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MAX_FROZEN_NUMBER, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MAX_FROZEN_NUMBER"));
   }
@@ -404,8 +484,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMaxFrozenTime() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_TIME))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MAX_FROZEN_TIME, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MAX_FROZEN_TIME"));
   }
@@ -417,8 +496,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMinFrozenTime() {
-    return Optional.ofNullable(this.dbSource.getData(MIN_FROZEN_TIME))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MIN_FROZEN_TIME, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MIN_FROZEN_TIME"));
   }
@@ -430,8 +508,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMaxFrozenSupplyNumber() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_SUPPLY_NUMBER))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MAX_FROZEN_SUPPLY_NUMBER, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_NUMBER"));
   }
@@ -443,8 +520,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMaxFrozenSupplyTime() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_SUPPLY_TIME))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MAX_FROZEN_SUPPLY_TIME, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_TIME"));
   }
@@ -456,8 +532,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMinFrozenSupplyTime() {
-    return Optional.ofNullable(this.dbSource.getData(MIN_FROZEN_SUPPLY_TIME))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MIN_FROZEN_SUPPLY_TIME, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MIN_FROZEN_SUPPLY_TIME"));
   }
@@ -469,8 +544,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getWitnessAllowanceFrozenTime() {
-    return Optional.ofNullable(this.dbSource.getData(WITNESS_ALLOWANCE_FROZEN_TIME))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(WITNESS_ALLOWANCE_FROZEN_TIME, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found WITNESS_ALLOWANCE_FROZEN_TIME"));
   }
@@ -482,8 +556,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getAccountUpgradeCost() {
-    return Optional.ofNullable(this.dbSource.getData(ACCOUNT_UPGRADE_COST))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(ACCOUNT_UPGRADE_COST, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found ACCOUNT_UPGRADE_COST"));
   }
@@ -495,8 +568,8 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getNonExistentAccountTransferMin() {
-    return Optional.ofNullable(this.dbSource.getData(NON_EXISTENT_ACCOUNT_TRANSFER_MIN))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(
+        this.getMirrored(NON_EXISTENT_ACCOUNT_TRANSFER_MIN, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found NON_EXISTENT_ACCOUNT_TRANSFER_MIN"));
   }
@@ -508,8 +581,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getPublicNetUsage() {
-    return Optional.ofNullable(this.dbSource.getData(PUBLIC_NET_USAGE))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(PUBLIC_NET_USAGE, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found PUBLIC_NET_USAGE"));
   }
@@ -520,8 +592,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getPublicNetLimit() {
-    return Optional.ofNullable(this.dbSource.getData(PUBLIC_NET_LIMIT))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(PUBLIC_NET_LIMIT, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found PUBLIC_NET_LIMIT"));
   }
@@ -532,8 +603,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getPublicNetTime() {
-    return Optional.ofNullable(this.dbSource.getData(PUBLIC_NET_TIME))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(PUBLIC_NET_TIME, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found PUBLIC_NET_TIME"));
   }
@@ -544,8 +614,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getFreeNetLimit() {
-    return Optional.ofNullable(this.dbSource.getData(FREE_NET_LIMIT))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(FREE_NET_LIMIT, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found FREE_NET_LIMIT"));
   }
@@ -556,8 +625,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getTotalNetWeight() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_NET_WEIGHT))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(TOTAL_NET_WEIGHT, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found TOTAL_NET_WEIGHT"));
   }
@@ -568,8 +636,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getTotalNetLimit() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_NET_LIMIT))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(TOTAL_NET_LIMIT, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found TOTAL_NET_LIMIT"));
   }
@@ -580,8 +647,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getBlockNetUsage() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_NET_USAGE))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(BLOCK_NET_USAGE, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found BLOCK_NET_USAGE"));
   }
@@ -592,8 +658,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getCreateAccountFee() {
-    return Optional.ofNullable(this.dbSource.getData(CREATE_ACCOUNT_FEE))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(CREATE_ACCOUNT_FEE, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found CREATE_ACCOUNT_FEE"));
   }
@@ -605,8 +670,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getTransactionFee() {
-    return Optional.ofNullable(this.dbSource.getData(TRANSACTION_FEE))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(TRANSACTION_FEE, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found TRANSACTION_FEE"));
   }
@@ -617,8 +681,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getTotalTransactionCost() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_TRANSACTION_COST))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(TOTAL_TRANSACTION_COST, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found TOTAL_TRANSACTION_COST"));
   }
@@ -629,8 +692,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getTotalCreateAccountCost() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_CREATE_ACCOUNT_COST))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(TOTAL_CREATE_ACCOUNT_COST, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found TOTAL_CREATE_ACCOUNT_COST"));
   }
@@ -641,8 +703,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public long getTotalCreateWitnessCost() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_CREATE_WITNESS_COST))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(TOTAL_CREATE_WITNESS_COST, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found TOTAL_CREATE_WITNESS_COST"));
   }
@@ -654,7 +715,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int[] getBlockFilledSlots() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_FILLED_SLOTS))
+    return Optional.ofNullable(this.getValue(BLOCK_FILLED_SLOTS))
         .map(ByteArray::toStr)
         .map(this::stringToIntArray)
         .orElseThrow(
@@ -662,8 +723,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getBlockFilledSlotsNumber() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_FILLED_SLOTS_NUMBER))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(BLOCK_FILLED_SLOTS_NUMBER, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found BLOCK_FILLED_SLOTS_NUMBER"));
   }
@@ -675,8 +735,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
   }
 
   public int getMaxVoteNumber() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_VOTE_NUMBER))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(MAX_VOTE_NUMBER, ByteArray::toInt))
         .orElseThrow(
             () -> new IllegalArgumentException("not found MAX_VOTE_NUMBER"));
   }
@@ -706,19 +765,30 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
 
 
   public long getLatestSolidifiedBlockNum() {
-    return Optional.ofNullable(this.dbSource.getData(LATEST_SOLIDIFIED_BLOCK_NUM))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(LATEST_SOLIDIFIED_BLOCK_NUM, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found latest SOLIDIFIED_BLOCK_NUM timestamp"));
     //return ByteArray.toLong(this.dbSource.getData(this.SOLIDIFIED_THRESHOLD));
   }
 
+  /**
+   * the maintenance period the votes are cast for, see {@link VotesStore}. Not set by default:
+   * its absence marks a db with votes written before they were keyed by period.
+   */
+  public void saveVotesPeriod(long period) {
+    this.put(VOTES_PERIOD, new BytesCapsule(ByteArray.fromLong(period)));
+  }
+
+  public long getVotesPeriod() {
+    return Optional.ofNullable(this.getMirrored(VOTES_PERIOD, ByteArray::toLong))
+        .orElseThrow(() -> new IllegalArgumentException("not found VOTES_PERIOD"));
+  }
+
   /**
    * get timestamp of creating global latest block.
    */
   public long getLatestBlockHeaderTimestamp() {
-    return Optional.ofNullable(this.dbSource.getData(LATEST_BLOCK_HEADER_TIMESTAMP))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(LATEST_BLOCK_HEADER_TIMESTAMP, ByteArray::toLong))
         .orElseThrow(() -> new IllegalArgumentException("not found latest block header timestamp"));
   }
 
@@ -726,14 +796,12 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
    * get number of global latest block.
    */
   public long getLatestBlockHeaderNumber() {
-    return Optional.ofNullable(this.dbSource.getData(LATEST_BLOCK_HEADER_NUMBER))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(LATEST_BLOCK_HEADER_NUMBER, ByteArray::toLong))
         .orElseThrow(() -> new IllegalArgumentException("not found latest block header number"));
   }
 
   public int getStateFlag() {
-    return Optional.ofNullable(this.dbSource.getData(STATE_FLAG))
-        .map(ByteArray::toInt)
+    return Optional.ofNullable(this.getMirrored(STATE_FLAG, ByteArray::toInt))
         .orElseThrow(() -> new IllegalArgumentException("not found maintenance flag"));
   }
 
@@ -743,9 +811,8 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
 
   public Sha256Hash getLatestBlockHeaderHash() {
 
-    byte[] blockHash = Optional.ofNullable(this.dbSource.getData(LATEST_BLOCK_HEADER_HASH))
+    return Optional.ofNullable(this.getMirrored(LATEST_BLOCK_HEADER_HASH, Sha256Hash::wrap))
         .orElseThrow(() -> new IllegalArgumentException("not found block hash"));
-    return Sha256Hash.wrap(blockHash);
   }
 
   /**
@@ -779,8 +846,7 @@ public class DynamicPropertiesStore extends TronStoreWithRevoking<BytesCapsule>
 
 
   public long getNextMaintenanceTime() {
-    return Optional.ofNullable(this.dbSource.getData(NEXT_MAINTENANCE_TIME))
-        .map(ByteArray::toLong)
+    return Optional.ofNullable(this.getMirrored(NEXT_MAINTENANCE_TIME, ByteArray::toLong))
         .orElseThrow(
             () -> new IllegalArgumentException("not found NEXT_MAINTENANCE_TIME"));
   }
@@ -3,24 +3,29 @@ package org.tron.core.db;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javafx.util.Pair;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.BadNumberBlockException;
 import org.tron.core.exception.UnLinkedBlockException;
 
+@Slf4j
 @Component
 public class KhaosDatabase extends TronDatabase {
 
@@ -81,7 +86,10 @@ public class KhaosDatabase extends TronDatabase {
           @Override
           protected boolean removeEldestEntry(Map.Entry<Long, ArrayList<KhaosBlock>> entry) {
             if (entry.getKey() < Long.max(0L, head.num - maxCapcity)) {
-              entry.getValue().forEach(b -> hashKblkMap.remove(b.id));
+              entry.getValue().forEach(b -> {
+                hashKblkMap.remove(b.id);
+                unpersist(b.id);
+              });
               return true;
             }
             return false;
@@ -93,6 +101,11 @@ public class KhaosDatabase extends TronDatabase {
     }
 
     public void insert(KhaosBlock block) {
+      index(block);
+      dbSource.putData(block.id.getBytes(), block.blk.getData());
+    }
+
+    private void index(KhaosBlock block) {
       hashKblkMap.put(block.id, block);
       numKblkMap.computeIfAbsent(block.num, listBlk -> new ArrayList<>()).add(block);
     }
@@ -108,11 +121,30 @@ public class KhaosDatabase extends TronDatabase {
           listBlk.removeIf(b -> b.id.equals(hash));
         }
         this.hashKblkMap.remove(hash);
+        unpersist(hash);
         return true;
       }
       return false;
     }
 
+    /**
+     * remove the blocks whose number is lower than num.
+     */
+    public void prune(long num) {
+      List<Sha256Hash> pruned = numKblkMap.entrySet().stream()
+          .filter(entry -> entry.getKey() < num)
+          .flatMap(entry -> entry.getValue().stream())
+          .map(block -> block.id)
+          .collect(Collectors.toList());
+      pruned.forEach(this::remove);
+      numKblkMap.keySet().removeIf(blockNum -> blockNum < num);
+    }
+
+    private void clear() {
+      hashKblkMap.clear();
+      numKblkMap.clear();
+    }
+
     public List<KhaosBlock> getBlockByNum(Long num) {
       return numKblkMap.get(num);
     }
@@ -158,9 +190,42 @@ public class KhaosDatabase extends TronDatabase {
     return false;
   }
 
+  /**
+   * Start from the given head block, with the blocks persisted before the restart.
+   */
   void start(BlockCapsule blk) {
     this.head = new KhaosBlock(blk);
-    miniStore.insert(this.head);
+    miniStore.clear();
+    miniUnlinkedStore.clear();
+
+    Map<Sha256Hash, KhaosBlock> blocks = new HashMap<>();
+    dbSource.allValues().forEach(data -> {
+      try {
+        KhaosBlock block = new KhaosBlock(new BlockCapsule(data));
+        blocks.put(block.id, block);
+      } catch (BadItemException e) {
+        logger.warn("drop bad block from {}: {}", dbSource.getDBName(), e.getMessage());
+      }
+    });
+    blocks.put(head.id, head);
+
+    // a block up to the head whose parent is gone is a root of the tree, a block beyond the head
+    // whose parent is gone is still unlinked
+    blocks.values().stream()
+        .sorted(Comparator.comparingLong(block -> block.num))
+        .forEach(block -> {
+          KhaosBlock parent = miniStore.getByHash(block.getParentHash());
+          if (parent != null) {
+            block.setParent(parent);
+            miniStore.index(block);
+          } else if (block.num <= head.num && !blocks.containsKey(block.getParentHash())) {
+            miniStore.index(block);
+          } else {
+            miniUnlinkedStore.index(block);
+          }
+        });
+    dbSource.putData(head.id.getBytes(), head.blk.getData());
+    logger.info("load {} blocks, {} unlinked", miniStore.size(), miniUnlinkedStore.size());
   }
 
   void setHead(KhaosBlock blk) {
@@ -239,6 +304,14 @@ public class KhaosDatabase extends TronDatabase {
     return false;
   }
 
+  /**
+   * remove the blocks below the solidified block, no fork can switch to them any more.
+   */
+  public void prune(long solidifiedNum) {
+    miniStore.prune(solidifiedNum);
+    miniUnlinkedStore.prune(solidifiedNum);
+  }
+
   public void setMaxSize(int maxSize) {
     miniUnlinkedStore.setMaxCapcity(maxSize);
     miniStore.setMaxCapcity(maxSize);
@@ -317,6 +390,12 @@ public class KhaosDatabase extends TronDatabase {
         .orElse(null);
   }
 
+  private void unpersist(Sha256Hash hash) {
+    if (!containBlock(hash)) {
+      dbSource.deleteData(hash.getBytes());
+    }
+  }
+
   public boolean hasData() {
     return !this.miniStore.hashKblkMap.isEmpty();
   }
@@ -1,5 +1,6 @@
 package org.tron.core.db;
 
+import static org.tron.core.config.Parameter.ChainConstant.JOURNAL_CHECKPOINT_BLOCKS;
 import static org.tron.core.config.Parameter.ChainConstant.SOLIDIFIED_THRESHOLD;
 import static org.tron.core.config.Parameter.ChainConstant.WITNESS_PAY_PER_BLOCK;
 import static org.tron.core.config.Parameter.NodeConstant.MAX_TRANSACTION_PENDING;
@@ -12,13 +13,14 @@ import com.google.common.collect.Lists;
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -30,6 +32,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.iq80.leveldb.WriteOptions;
 import org.joda.time.DateTime;
 import org.spongycastle.util.encoders.Hex;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -106,6 +109,13 @@ public class Manager {
   private RecentBlockStore recentBlockStore;
   @Autowired
   private VotesStore votesStore;
+  @Autowired
+  private VoteTallyStore voteTallyStore;
+  @Autowired
+  private BlockJournal blockJournal;
+
+  // blocks flushed since the stores were last synced and the block journal truncated
+  private int blocksSinceCheckpoint = 0;
 
   // for network
   @Autowired
@@ -168,7 +178,11 @@ public class Manager {
     return this.votesStore;
   }
 
-  public List<TransactionCapsule> getPendingTransactions() {
+  public VoteTallyStore getVoteTallyStore() {
+    return this.voteTallyStore;
+  }
+
+  public PendingTransactionPool getPendingTransactions() {
     return this.pendingTransactions;
   }
 
@@ -177,7 +191,7 @@ public class Manager {
   }
 
   // transactions cache
-  private List<TransactionCapsule> pendingTransactions;
+  private PendingTransactionPool pendingTransactions;
 
   // transactions popped
   private List<TransactionCapsule> popedTransactions =
@@ -190,7 +204,7 @@ public class Manager {
 
   // for test only
   public void addWitness(final ByteString address) {
-    List<ByteString> witnessAddresses = witnessController.getActiveWitnesses();
+    List<ByteString> witnessAddresses = new ArrayList<>(witnessController.getActiveWitnesses());
     witnessAddresses.add(address);
     witnessController.setActiveWitnesses(witnessAddresses);
   }
@@ -253,11 +267,16 @@ public class Manager {
   public void init() {
     revokingStore = RevokingStore.getInstance();
     revokingStore.disable();
+    replayBlockJournal();
     this.setWitnessController(WitnessController.createInstance(this));
-    this.pendingTransactions = Collections.synchronizedList(Lists.newArrayList());
+    this.pendingTransactions = new PendingTransactionPool(
+        Args.getInstance().getNodeMaxPendingTransactions() > 0
+            ? Args.getInstance().getNodeMaxPendingTransactions() : MAX_TRANSACTION_PENDING);
     this.initGenesis();
+    this.dynamicPropertiesStore.updateHeadProperties();
     try {
       this.khaosDb.start(getBlockById(getDynamicPropertiesStore().getLatestBlockHeaderHash()));
+      this.khaosDb.prune(getDynamicPropertiesStore().getLatestSolidifiedBlockNum());
     } catch (ItemNotFoundException e) {
       logger.error(
           "Can not find Dynamic highest block from DB! \nnumber={} \nhash={}",
@@ -275,6 +294,8 @@ public class Manager {
           Args.getInstance().getOutputDirectory());
       System.exit(1);
     }
+    votesStore.initVoteTally();
+    flushStores();
     revokingStore.enable();
 
     validateSignService = Executors
@@ -493,19 +514,95 @@ public class Manager {
 
     //validateFreq(trx);
     synchronized (this) {
-      if (!dialog.valid()) {
-        dialog.setValue(revokingStore.buildDialog());
+      if (pendingTransactions.contains(trx.getTransactionId())) {
+        throw new DupTransactionException("dup trans");
+      }
+      if (pendingTransactions.isFull()) {
+        logger.debug("pending transaction pool is full");
+        return false;
+      }
+
+      applyPendingTransactions(PendingTransactionPool.getAccounts(trx));
+
+      try {
+        applyNewTransaction(trx);
+      } catch (ContractValidateException e) {
+        // it may depend on a pending transaction of an account it does not touch, such as a
+        // witness created by another owner: apply them all and try once more
+        List<TransactionCapsule> unapplied = pendingTransactions.getUnapplied();
+        if (unapplied.isEmpty()) {
+          throw e;
+        }
+        applyInOrder(unapplied).forEach(
+            failed -> pendingTransactions.remove(failed.getTransactionId()));
+        applyNewTransaction(trx);
       }
+    }
+    return true;
+  }
+
+  private void applyNewTransaction(TransactionCapsule trx)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, DupTransactionException, TaposException,
+      TooBigTransactionException, TransactionExpirationException {
+    try (RevokingStore.Dialog tmpDialog = revokingStore.buildDialog()) {
+      processTransaction(trx);
+      pendingTransactions.add(trx);
+      tmpDialog.merge();
+    } catch (RevokingStoreIllegalStateException e) {
+      logger.debug(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Apply again, in arrival order, the unapplied pending transactions touching the accounts and
+   * the earlier ones they depend on. When some of them are no longer valid, every unapplied
+   * transaction is applied in arrival order, like the whole pending list was before, and only
+   * the ones failing there are dropped.
+   */
+  synchronized void applyPendingTransactions(Collection<ByteString> accounts) {
+    if (applyInOrder(pendingTransactions.getUnapplied(accounts)).isEmpty()) {
+      return;
+    }
+    applyInOrder(pendingTransactions.getUnapplied()).forEach(trx -> {
+      logger.debug("drop pending transaction " + trx.getTransactionId());
+      pendingTransactions.remove(trx.getTransactionId());
+    });
+  }
+
+  /**
+   * apply the pending transactions in the given order.
+   *
+   * @return the transactions which failed
+   */
+  private List<TransactionCapsule> applyInOrder(List<TransactionCapsule> trxs) {
+    if (!dialog.valid()) {
+      dialog.setValue(revokingStore.buildDialog());
+    }
 
-      try (RevokingStore.Dialog tmpDialog = revokingStore.buildDialog()) {
+    List<TransactionCapsule> failed = new ArrayList<>();
+    for (TransactionCapsule trx : trxs) {
+      try (Dialog tmpDialog = revokingStore.buildDialog()) {
         processTransaction(trx);
-        pendingTransactions.add(trx);
         tmpDialog.merge();
-      } catch (RevokingStoreIllegalStateException e) {
-        logger.debug(e.getMessage(), e);
+        pendingTransactions.markApplied(trx.getTransactionId());
+      } catch (ValidateSignatureException | ContractValidateException | ContractExeException
+          | AccountResourceInsufficientException | DupTransactionException | TaposException
+          | TooBigTransactionException | TransactionExpirationException
+          | RevokingStoreIllegalStateException e) {
+        logger.debug("pending transaction not applied: " + e.getMessage());
+        failed.add(trx);
       }
     }
-    return true;
+    return failed;
+  }
+
+  /**
+   * Revoke the effects of all pending transactions, they are applied again when needed.
+   */
+  void resetPendingDialog() {
+    dialog.reset();
+    pendingTransactions.markAllUnapplied();
   }
 
 
@@ -553,7 +650,7 @@ public class Manager {
    * when switch fork need erase blocks on fork branch.
    */
   public void eraseBlock() throws BadItemException, ItemNotFoundException {
-    dialog.reset();
+    resetPendingDialog();
     BlockCapsule oldHeadBlock =
         getBlockStore().get(getDynamicPropertiesStore().getLatestBlockHeaderHash().getBytes());
     try {
@@ -573,6 +670,7 @@ public class Manager {
     processBlock(block);
     this.blockStore.put(block.getBlockId().getBytes(), block);
     this.blockIndexStore.put(block.getBlockId());
+    pendingTransactions.onBlockApplied(block);
   }
 
   private void switchFork(BlockCapsule newHead) {
@@ -701,6 +799,7 @@ public class Manager {
                   + khaosDb.getMiniUnlinkedStore().size());
 
           switchFork(newBlock);
+          flushStores();
           logger.info("save block: " + newBlock);
 
           logger.warn(
@@ -733,20 +832,80 @@ public class Manager {
           khaosDb.removeBlk(block.getBlockId());
           throw throwable;
         }
+        flushStores();
       }
       logger.info("save block: " + newBlock);
     }
   }
 
+  /**
+   * write the modifications of the last block to disk. All rows, the new head included, first go
+   * to the block journal in one synced batch, then to the stores without sync: a crash at any
+   * point leaves either the previous or the new block, as the journal is replayed on startup.
+   * Every JOURNAL_CHECKPOINT_BLOCKS blocks the stores are synced and the journal truncated.
+   *
+   * <p>With a snapshot revoking store, only the solidified blocks reach the stores.
+   */
+  private void flushStores() {
+    revokingStore.solidify((int) (dynamicPropertiesStore.getLatestBlockHeaderNumber()
+        - dynamicPropertiesStore.getLatestSolidifiedBlockNum()));
+    List<TronStoreWithRevoking<?>> stores = getJournaledStores();
+    Map<String, Map<byte[], byte[]>> rowsByStore = new HashMap<>();
+    stores.forEach(store -> {
+      Map<byte[], byte[]> rows = store.getDirtyRows();
+      if (!rows.isEmpty()) {
+        rowsByStore.put(store.getDbSource().getDBName(), rows);
+      }
+    });
+    if (rowsByStore.isEmpty()) {
+      return;
+    }
+
+    blockJournal.append(rowsByStore);
+    WriteOptions options = new WriteOptions();
+    stores.forEach(store -> store.flush(options));
+
+    if (++blocksSinceCheckpoint >= JOURNAL_CHECKPOINT_BLOCKS) {
+      stores.forEach(TronStoreWithRevoking::sync);
+      blockJournal.truncate();
+      blocksSinceCheckpoint = 0;
+    }
+  }
+
+  /**
+   * stage the rows journaled since the last checkpoint into the stores. A crash may have left
+   * them in some stores and not in others, the flush at the end of init writes them again,
+   * journal first.
+   */
+  private void replayBlockJournal() {
+    Map<String, Map<byte[], byte[]>> rowsByStore = blockJournal.load();
+    if (rowsByStore.isEmpty()) {
+      return;
+    }
+    logger.info("replay the block journal of {} stores", rowsByStore.size());
+    getJournaledStores().forEach(store -> {
+      Map<byte[], byte[]> rows = rowsByStore.get(store.getDbSource().getDBName());
+      if (rows != null) {
+        store.replay(rows);
+      }
+    });
+  }
+
+  private List<TronStoreWithRevoking<?>> getJournaledStores() {
+    return Arrays.asList(accountStore, accountIndexStore, assetIssueStore, witnessStore,
+        witnessScheduleStore, votesStore, voteTallyStore, transactionStore, blockStore,
+        blockIndexStore, recentBlockStore, dynamicPropertiesStore);
+  }
+
   public void updateDynamicProperties(BlockCapsule block) {
     long slot = 1;
     if (block.getNum() != 1) {
       slot = witnessController.getSlotAtTime(block.getTimeStamp());
     }
     for (int i = 1; i < slot; ++i) {
-      if (!witnessController.getScheduledWitness(i).equals(block.getWitnessAddress())) {
-        WitnessCapsule w =
-            this.witnessStore.get(StringUtil.createDbKey(witnessController.getScheduledWitness(i)));
+      ByteString scheduledWitness = witnessController.getScheduledWitness(i);
+      if (!scheduledWitness.equals(block.getWitnessAddress())) {
+        WitnessCapsule w = this.witnessStore.get(StringUtil.createDbKey(scheduledWitness));
         w.setTotalMissed(w.getTotalMissed() + 1);
         this.witnessStore.put(w.createDbKey(), w);
         logger.info(
@@ -776,6 +935,7 @@ public class Manager {
         (dynamicPropertiesStore.getLatestBlockHeaderNumber()
             - dynamicPropertiesStore.getLatestSolidifiedBlockNum()
             + 1));
+    khaosDb.prune(dynamicPropertiesStore.getLatestSolidifiedBlockNum());
   }
 
   /**
@@ -922,18 +1082,19 @@ public class Manager {
 
     final BlockCapsule blockCapsule =
         new BlockCapsule(number + 1, preHash, when, witnessCapsule.getAddress());
-    dialog.reset();
+    List<TransactionCapsule> packedTransactions = new ArrayList<>();
+    long blockSize = blockCapsule.getInstance().getSerializedSize();
+    resetPendingDialog();
     dialog.setValue(revokingStore.buildDialog());
-    Iterator iterator = pendingTransactions.iterator();
-    while (iterator.hasNext()) {
-      TransactionCapsule trx = (TransactionCapsule) iterator.next();
+    for (TransactionCapsule trx : pendingTransactions.getTransactions()) {
       if (DateTime.now().getMillis() - when
           > ChainConstant.BLOCK_PRODUCED_INTERVAL * 0.5 * ChainConstant.BLOCK_PRODUCED_TIME_OUT) {
         logger.warn("Processing transaction time exceeds the 50% producing time。");
         break;
       }
       // check the block size
-      if ((blockCapsule.getInstance().getSerializedSize() + trx.getSerializedSize() + 3) > ChainConstant.BLOCK_SIZE) {
+      int trxSize = BlockCapsule.getTransactionSize(trx);
+      if (blockSize + trxSize > ChainConstant.BLOCK_SIZE) {
         postponedTrxCount++;
         continue;
       }
@@ -942,8 +1103,9 @@ public class Manager {
         processTransaction(trx);
         tmpDialog.merge();
         // push into block
-        blockCapsule.addTransaction(trx);
-        iterator.remove();
+        packedTransactions.add(trx);
+        blockSize += trxSize;
+        pendingTransactions.remove(trx.getTransactionId());
       } catch (ContractExeException e) {
         logger.info("contract not processed during execute");
         logger.debug(e.getMessage(), e);
@@ -968,7 +1130,8 @@ public class Manager {
       }
     }
 
-    dialog.reset();
+    resetPendingDialog();
+    blockCapsule.addTransactions(packedTransactions);
 
     if (postponedTrxCount > 0) {
       logger.info("{} transactions over the block size limit", postponedTrxCount);
@@ -1040,6 +1203,10 @@ public class Manager {
       throw new ValidateScheduleException("validateWitnessSchedule error");
     }
 
+    if (!block.generatedByMyself) {
+      prefetchAccounts(block);
+    }
+
     for (TransactionCapsule transactionCapsule : block.getTransactions()) {
       if (block.generatedByMyself) {
         transactionCapsule.setVerified(true);
@@ -1062,6 +1229,36 @@ public class Manager {
     updateMaintenanceState(needMaint);
     //witnessController.updateWitnessSchedule();
     updateRecentBlock(block);
+    this.dynamicPropertiesStore.updateHeadProperties();
+  }
+
+  /**
+   * Load the accounts of the transactions of a block in parallel, so that the execution, which
+   * has to stay serial and in block order, mostly hits the account cache.
+   */
+  private void prefetchAccounts(BlockCapsule block) {
+    List<Callable<Object>> tasks = block.getTransactions().stream()
+        .map(trx -> Executors.callable(() -> trx.getInstance().getRawData().getContractList()
+            .forEach(contract -> {
+              byte[] owner = TransactionCapsule.getOwner(contract);
+              if (owner != null) {
+                accountStore.prefetch(owner);
+              }
+              byte[] to = TransactionCapsule.getToAddress(contract);
+              if (to != null) {
+                accountStore.prefetch(to);
+              }
+            })))
+        .collect(Collectors.toList());
+    if (tasks.size() < 2) {
+      return;
+    }
+
+    try {
+      validateSignService.invokeAll(tasks);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
   private void updateTransHashCache(BlockCapsule block) {
@@ -1231,6 +1428,10 @@ public class Manager {
     closeOneStore(dynamicPropertiesStore);
     closeOneStore(transactionStore);
     closeOneStore(utxoStore);
+    closeOneStore(recentBlockStore);
+    closeOneStore(votesStore);
+    closeOneStore(voteTallyStore);
+    closeOneStore(blockJournal);
     System.err.println("******** end to close db ********");
   }
 
@@ -1246,11 +1447,7 @@ public class Manager {
   }
 
   public boolean isTooManyPending() {
-    if (getPendingTransactions().size() + PendingManager.getTmpTransactions().size()
-        > MAX_TRANSACTION_PENDING) {
-      return true;
-    }
-    return false;
+    return getPendingTransactions().isFull();
   }
 
   public boolean isGeneratingBlock() {
@@ -1262,43 +1459,40 @@ public class Manager {
 
   private static class ValidateSignTask implements Callable<Boolean> {
 
-    private TransactionCapsule trx;
-    private CountDownLatch countDownLatch;
+    private List<TransactionCapsule> transactions;
 
-    ValidateSignTask(TransactionCapsule trx, CountDownLatch countDownLatch) {
-      this.trx = trx;
-      this.countDownLatch = countDownLatch;
+    ValidateSignTask(List<TransactionCapsule> transactions) {
+      this.transactions = transactions;
     }
 
     @Override
     public Boolean call() throws ValidateSignatureException {
-      try {
+      for (TransactionCapsule trx : transactions) {
         trx.validateSignature();
-      } catch (ValidateSignatureException e) {
-        throw e;
-      } finally {
-        countDownLatch.countDown();
       }
       return true;
     }
   }
 
+  /**
+   * Verify the signatures of a block in parallel, one batch of transactions per thread.
+   */
   public synchronized void preValidateTransactionSign(BlockCapsule block)
       throws InterruptedException, ValidateSignatureException {
     logger.info("PreValidate Transaction Sign, size:" + block.getTransactions().size()
         + ",block num:" + block.getNum());
-    int transSize = block.getTransactions().size();
-    CountDownLatch countDownLatch = new CountDownLatch(transSize);
-    List<Future<Boolean>> futures = new ArrayList<>(transSize);
-
-    for (TransactionCapsule transaction : block.getTransactions()) {
-      Future<Boolean> future = validateSignService
-          .submit(new ValidateSignTask(transaction, countDownLatch));
-      futures.add(future);
+    List<TransactionCapsule> transactions = block.getTransactions();
+    if (transactions.isEmpty()) {
+      return;
     }
-    countDownLatch.await();
 
-    for (Future<Boolean> future : futures) {
+    int threadNum = Args.getInstance().getValidateSignThreadNum();
+    int batchSize = (transactions.size() + threadNum - 1) / threadNum;
+    List<ValidateSignTask> tasks = Lists.partition(transactions, batchSize).stream()
+        .map(ValidateSignTask::new)
+        .collect(Collectors.toList());
+
+    for (Future<Boolean> future : validateSignService.invokeAll(tasks)) {
       try {
         future.get();
       } catch (ExecutionException e) {
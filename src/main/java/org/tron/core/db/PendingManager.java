@@ -1,8 +1,6 @@
 package org.tron.core.db;
 
-import java.util.ArrayList;
 import java.util.List;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.exception.BadItemException;
@@ -18,23 +16,24 @@ import org.tron.core.exception.ValidateSignatureException;
 @Slf4j
 public class PendingManager implements AutoCloseable {
 
-  @Getter
-  static List<TransactionCapsule> tmpTransactions = new ArrayList<>();
   Manager dbManager;
 
   public PendingManager(Manager db) {
     this.dbManager = db;
-    tmpTransactions.addAll(db.getPendingTransactions());
-    db.getPendingTransactions().clear();
-    db.getDialog().reset();
+    db.resetPendingDialog();
   }
 
+  /**
+   * Only the pending transactions of the accounts touched by the new blocks, and the earlier ones
+   * they depend on, are validated again, the others are applied lazily.
+   */
   @Override
   public void close() {
-    rePush(this.tmpTransactions);
+    PendingTransactionPool pool = dbManager.getPendingTransactions();
+    pool.evictExpired(dbManager.getHeadBlockTimeStamp());
+    dbManager.applyPendingTransactions(pool.pollTouchedOwners());
     rePush(dbManager.getPoppedTransactions());
     dbManager.getPoppedTransactions().clear();
-    tmpTransactions.clear();
   }
 
   private void rePush(List<TransactionCapsule> txs) {
@@ -0,0 +1,234 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * Pending transactions, indexed by id and by owner and kept in arrival order.
+ *
+ * <p>A pending transaction is applied when its effects are in the pending dialog of the manager.
+ * Resetting that dialog makes every transaction unapplied, and they are only executed again when
+ * needed: when the block touched their owner, when a new transaction touching the same accounts
+ * comes in, or when a block is generated. A transaction is always executed after the earlier
+ * pending transactions touching its accounts, see {@link #getUnapplied(Collection)}.
+ */
+@Slf4j
+public class PendingTransactionPool {
+
+  private final Map<Sha256Hash, Entry> transactions = new LinkedHashMap<>();
+  private final Map<ByteString, Set<Sha256Hash>> owners = new HashMap<>();
+  private final Set<ByteString> touchedOwners = new HashSet<>();
+  private final int maxSize;
+
+  public PendingTransactionPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * add an applied transaction.
+   *
+   * @return false if the pool is full or has the transaction already
+   */
+  public synchronized boolean add(TransactionCapsule trx) {
+    if (isFull() || transactions.containsKey(trx.getTransactionId())) {
+      return false;
+    }
+
+    Entry entry = new Entry(trx, getOwner(trx), getAccounts(trx));
+    entry.applied = true;
+    transactions.put(trx.getTransactionId(), entry);
+    owners.computeIfAbsent(entry.owner, owner -> new LinkedHashSet<>())
+        .add(trx.getTransactionId());
+    return true;
+  }
+
+  public synchronized TransactionCapsule remove(Sha256Hash id) {
+    Entry entry = transactions.remove(id);
+    if (Objects.isNull(entry)) {
+      return null;
+    }
+
+    Set<Sha256Hash> ids = owners.get(entry.owner);
+    ids.remove(id);
+    if (ids.isEmpty()) {
+      owners.remove(entry.owner);
+    }
+    return entry.trx;
+  }
+
+  public synchronized boolean contains(Sha256Hash id) {
+    return transactions.containsKey(id);
+  }
+
+  /**
+   * Drop the transactions included in the block and remember the accounts it touched, their
+   * pending transactions have to be validated again.
+   */
+  public synchronized void onBlockApplied(BlockCapsule block) {
+    block.getTransactions().forEach(trx -> {
+      remove(trx.getTransactionId());
+      trx.getInstance().getRawData().getContractList().forEach(contract -> {
+        touch(TransactionCapsule.getOwner(contract));
+        touch(TransactionCapsule.getToAddress(contract));
+      });
+    });
+  }
+
+  /**
+   * get the owners touched by the applied blocks which have pending transactions, and forget
+   * them.
+   */
+  public synchronized List<ByteString> pollTouchedOwners() {
+    List<ByteString> touched = touchedOwners.stream()
+        .filter(owners::containsKey)
+        .collect(Collectors.toList());
+    touchedOwners.clear();
+    return touched;
+  }
+
+  /**
+   * Drop the transactions expiring at or before the given head block time.
+   *
+   * @return the number of dropped transactions
+   */
+  public synchronized int evictExpired(long headBlockTime) {
+    List<Sha256Hash> expired = transactions.values().stream()
+        .filter(entry -> entry.trx.getExpiration() <= headBlockTime)
+        .map(entry -> entry.trx.getTransactionId())
+        .collect(Collectors.toList());
+    expired.forEach(this::remove);
+    if (!expired.isEmpty()) {
+      logger.info("evict {} expired pending transactions", expired.size());
+    }
+    return expired.size();
+  }
+
+  /**
+   * Get, in arrival order, the unapplied transactions touching the accounts and the earlier
+   * unapplied transactions they depend on: the ones touching an account of a selected
+   * transaction, such as a transfer to its owner.
+   */
+  public synchronized List<TransactionCapsule> getUnapplied(Collection<ByteString> accounts) {
+    Set<ByteString> dependencies = new HashSet<>(accounts);
+    List<TransactionCapsule> selected = new ArrayList<>();
+    ListIterator<Entry> iterator = new ArrayList<>(transactions.values())
+        .listIterator(transactions.size());
+    while (iterator.hasPrevious()) {
+      Entry entry = iterator.previous();
+      if (!entry.applied && entry.accounts.stream().anyMatch(dependencies::contains)) {
+        dependencies.addAll(entry.accounts);
+        selected.add(entry.trx);
+      }
+    }
+    Collections.reverse(selected);
+    return selected;
+  }
+
+  /**
+   * get all unapplied transactions in arrival order.
+   */
+  public synchronized List<TransactionCapsule> getUnapplied() {
+    return transactions.values().stream()
+        .filter(entry -> !entry.applied)
+        .map(entry -> entry.trx)
+        .collect(Collectors.toList());
+  }
+
+  public synchronized void markApplied(Sha256Hash id) {
+    Entry entry = transactions.get(id);
+    if (Objects.nonNull(entry)) {
+      entry.applied = true;
+    }
+  }
+
+  /**
+   * called when the pending dialog is reset.
+   */
+  public synchronized void markAllUnapplied() {
+    transactions.values().forEach(entry -> entry.applied = false);
+  }
+
+  /**
+   * get all transactions in the order they have to be packed into a block.
+   */
+  public synchronized List<TransactionCapsule> getTransactions() {
+    return transactions.values().stream()
+        .map(entry -> entry.trx)
+        .collect(Collectors.toList());
+  }
+
+  public synchronized int size() {
+    return transactions.size();
+  }
+
+  public synchronized boolean isFull() {
+    return transactions.size() >= maxSize;
+  }
+
+  public synchronized void clear() {
+    transactions.clear();
+    owners.clear();
+    touchedOwners.clear();
+  }
+
+  public static ByteString getOwner(TransactionCapsule trx) {
+    List<Transaction.Contract> contracts = trx.getInstance().getRawData().getContractList();
+    if (contracts.isEmpty()) {
+      return ByteString.EMPTY;
+    }
+    byte[] owner = TransactionCapsule.getOwner(contracts.get(0));
+    return Objects.isNull(owner) ? ByteString.EMPTY : ByteString.copyFrom(owner);
+  }
+
+  /**
+   * the owner and the recipients of the contracts of the transaction.
+   */
+  public static Set<ByteString> getAccounts(TransactionCapsule trx) {
+    Set<ByteString> accounts = new HashSet<>();
+    accounts.add(getOwner(trx));
+    trx.getInstance().getRawData().getContractList().forEach(contract -> {
+      byte[] to = TransactionCapsule.getToAddress(contract);
+      if (Objects.nonNull(to)) {
+        accounts.add(ByteString.copyFrom(to));
+      }
+    });
+    return accounts;
+  }
+
+  private void touch(byte[] address) {
+    if (Objects.nonNull(address)) {
+      touchedOwners.add(ByteString.copyFrom(address));
+    }
+  }
+
+  private static final class Entry {
+
+    private final TransactionCapsule trx;
+    private final ByteString owner;
+    private final Set<ByteString> accounts;
+    private boolean applied;
+
+    private Entry(TransactionCapsule trx, ByteString owner, Set<ByteString> accounts) {
+      this.trx = trx;
+      this.owner = owner;
+      this.accounts = accounts;
+    }
+  }
+}
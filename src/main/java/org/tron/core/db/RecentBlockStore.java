@@ -14,6 +14,7 @@ public class RecentBlockStore extends TronStoreWithRevoking<BytesCapsule> {
   @Autowired
   private RecentBlockStore(@Value("recent-block") String dbName) {
     super(dbName);
+    enableWriteBack();
   }
 
   @Override
@@ -23,7 +24,7 @@ public class RecentBlockStore extends TronStoreWithRevoking<BytesCapsule> {
 
   @Override
   public BytesCapsule get(byte[] key) throws ItemNotFoundException {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     if (ArrayUtils.isEmpty(value)) {
       throw new ItemNotFoundException();
     }
@@ -32,7 +33,7 @@ public class RecentBlockStore extends TronStoreWithRevoking<BytesCapsule> {
 
   @Override
   public boolean has(byte[] key) {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     return null != value;
   }
 }
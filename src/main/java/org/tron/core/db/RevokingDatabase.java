@@ -1,5 +1,6 @@
 package org.tron.core.db;
 
+import org.tron.common.storage.SourceInter;
 import org.tron.core.db.AbstractRevokingStore.Dialog;
 import org.tron.core.db.AbstractRevokingStore.RevokingState;
 import org.tron.core.db.AbstractRevokingStore.RevokingTuple;
@@ -34,4 +35,23 @@ public interface RevokingDatabase {
   void disable();
 
   void shutdown();
+
+  /**
+   * Run the listener after each revoke or pop, once the stores show the restored values.
+   */
+  void addRevokeListener(Runnable listener);
+
+  /**
+   * Wrap the source of a store, the store reads and writes through the returned source.
+   */
+  default SourceInter<byte[], byte[]> wrap(SourceInter<byte[], byte[]> source) {
+    return source;
+  }
+
+  /**
+   * Make the oldest committed states permanent, keeping at most the given number of them
+   * revocable.
+   */
+  default void solidify(int remaining) {
+  }
 }
@@ -1,5 +1,9 @@
 package org.tron.core.db;
 
+import java.util.Objects;
+import org.tron.core.config.args.Args;
+import org.tron.core.config.args.Storage;
+
 public class RevokingStore extends AbstractRevokingStore {
 
   private RevokingStore() {
@@ -15,7 +19,12 @@ public class RevokingStore extends AbstractRevokingStore {
     private RevokingDatabase instance;
 
     RevokingEnum() {
-      instance = new RevokingStore();
+      Storage storage = Args.getInstance().getStorage();
+      if (Objects.nonNull(storage) && storage.isSnapshotRevoking()) {
+        instance = new SnapshotRevokingStore();
+      } else {
+        instance = new RevokingStore();
+      }
     }
 
     private RevokingDatabase getInstance() {
@@ -0,0 +1,373 @@
+package org.tron.core.db;
+
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.iq80.leveldb.WriteOptions;
+import org.tron.common.storage.SourceInter;
+import org.tron.core.db.AbstractRevokingStore.Dialog;
+import org.tron.core.db.AbstractRevokingStore.RevokingState;
+import org.tron.core.db.AbstractRevokingStore.RevokingTuple;
+import org.tron.core.db.common.iterator.DBIterator;
+import org.tron.core.db.common.iterator.MergedIterator;
+import org.tron.core.exception.RevokingStoreIllegalStateException;
+
+/**
+ * Revoking database keeping every dialog as an in-memory snapshot on top of the db.
+ *
+ * <p>Writes go to the latest snapshot and reads walk the snapshots from the latest one down to
+ * the db, so revoke and pop only drop a snapshot. Committed snapshots are written to the db
+ * only once they are solidified, see {@link #solidify(int)}.
+ */
+@Slf4j
+public class SnapshotRevokingStore implements RevokingDatabase {
+
+  private static final int DEFAULT_STACK_MAX_SIZE = 256;
+  private static final byte[] REMOVED = new byte[0];
+
+  private final Deque<Snapshot> stack = new ConcurrentLinkedDeque<>();
+  private volatile boolean disabled = true;
+  private int activeDialog = 0;
+  private AtomicInteger maxSize = new AtomicInteger(DEFAULT_STACK_MAX_SIZE);
+  private final List<Runnable> revokeListeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public SourceInter<byte[], byte[]> wrap(SourceInter<byte[], byte[]> source) {
+    return new SnapshotSource(source);
+  }
+
+  @Override
+  public Dialog buildDialog() {
+    return buildDialog(false);
+  }
+
+  @Override
+  public synchronized Dialog buildDialog(boolean forceEnable) {
+    if (disabled && !forceEnable) {
+      return new Dialog(this);
+    }
+
+    boolean disableOnExit = disabled && forceEnable;
+    if (forceEnable) {
+      disabled = false;
+    }
+
+    while (stack.size() > maxSize.get()) {
+      flattenFirst();
+    }
+
+    stack.add(new Snapshot());
+    ++activeDialog;
+    return new Dialog(this, disableOnExit);
+  }
+
+  /**
+   * Nothing to record, the sources write into the latest snapshot themselves.
+   */
+  @Override
+  public void onCreate(RevokingTuple tuple, byte[] value) {
+  }
+
+  @Override
+  public void onModify(RevokingTuple tuple, byte[] value) {
+  }
+
+  @Override
+  public void onRemove(RevokingTuple tuple, byte[] value) {
+  }
+
+  @Override
+  public synchronized void merge() throws RevokingStoreIllegalStateException {
+    if (activeDialog <= 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be greater than 0");
+    }
+
+    if (activeDialog == 1 && stack.size() == 1) {
+      flattenFirst();
+      --activeDialog;
+      return;
+    }
+
+    if (stack.size() < 2) {
+      return;
+    }
+
+    // merge before polling, so readers never miss the writes of the latest snapshot
+    Iterator<Snapshot> iterator = stack.descendingIterator();
+    Snapshot snapshot = iterator.next();
+    iterator.next().merge(snapshot);
+    stack.pollLast();
+    --activeDialog;
+  }
+
+  @Override
+  public synchronized void revoke() throws RevokingStoreIllegalStateException {
+    if (disabled) {
+      return;
+    }
+
+    if (activeDialog <= 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be greater than 0");
+    }
+
+    if (Objects.isNull(stack.pollLast())) {
+      return;
+    }
+    --activeDialog;
+    revokeListeners.forEach(Runnable::run);
+  }
+
+  @Override
+  public synchronized void commit() throws RevokingStoreIllegalStateException {
+    if (activeDialog <= 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be greater than 0");
+    }
+
+    --activeDialog;
+  }
+
+  @Override
+  public synchronized void pop() throws RevokingStoreIllegalStateException {
+    if (activeDialog != 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be equal 0");
+    }
+
+    if (stack.isEmpty()) {
+      throw new RevokingStoreIllegalStateException("stack is empty");
+    }
+
+    stack.pollLast();
+    revokeListeners.forEach(Runnable::run);
+  }
+
+  @Override
+  public void addRevokeListener(Runnable listener) {
+    revokeListeners.add(listener);
+  }
+
+  /**
+   * Write the oldest committed snapshots to the db until at most remaining of them are left.
+   */
+  @Override
+  public synchronized void solidify(int remaining) {
+    while (stack.size() - activeDialog > Math.max(remaining, 0)) {
+      flattenFirst();
+    }
+  }
+
+  /**
+   * There is no undo state in this store.
+   */
+  @Override
+  public RevokingState head() {
+    return null;
+  }
+
+  @Override
+  public void enable() {
+    disabled = false;
+  }
+
+  @Override
+  public synchronized int size() {
+    return stack.size();
+  }
+
+  @Override
+  public void disable() {
+    disabled = true;
+  }
+
+  public void setMaxSize(int maxSize) {
+    this.maxSize.set(maxSize);
+  }
+
+  public int getMaxSize() {
+    return maxSize.get();
+  }
+
+  /**
+   * Drop the snapshots which are not solidified yet, the db keeps the last solidified state.
+   */
+  @Override
+  public synchronized void shutdown() {
+    System.err.println("******** begin to drop snapshots ********");
+    System.err.println("******** before snapshot size:" + stack.size());
+    disable();
+    activeDialog = 0;
+    stack.clear();
+    revokeListeners.forEach(Runnable::run);
+    System.err.println("******** end to drop snapshots ********");
+  }
+
+  private synchronized Snapshot addIfEmpty() {
+    if (stack.isEmpty()) {
+      stack.add(new Snapshot());
+    }
+    return stack.peekLast();
+  }
+
+  private void flattenFirst() {
+    Snapshot snapshot = stack.peekFirst();
+    if (Objects.nonNull(snapshot)) {
+      // write to the db before dropping the snapshot, so readers never miss the data
+      snapshot.flatten();
+      stack.pollFirst();
+    }
+  }
+
+  private static final class Snapshot {
+
+    private final Map<SnapshotSource, Map<ByteArrayWrapper, byte[]>> writes =
+        new ConcurrentHashMap<>();
+
+    private byte[] get(SnapshotSource source, ByteArrayWrapper key) {
+      Map<ByteArrayWrapper, byte[]> values = writes.get(source);
+      return Objects.isNull(values) ? null : values.get(key);
+    }
+
+    private void put(SnapshotSource source, ByteArrayWrapper key, byte[] value) {
+      writes.computeIfAbsent(source, s -> new ConcurrentHashMap<>()).put(key, value);
+    }
+
+    private void remove(SnapshotSource source, ByteArrayWrapper key) {
+      Map<ByteArrayWrapper, byte[]> values = writes.get(source);
+      if (Objects.nonNull(values)) {
+        values.remove(key);
+      }
+    }
+
+    private void merge(Snapshot snapshot) {
+      snapshot.writes.forEach((source, values) ->
+          writes.computeIfAbsent(source, s -> new ConcurrentHashMap<>()).putAll(values));
+    }
+
+    private void flatten() {
+      writes.forEach(SnapshotSource::flatten);
+    }
+  }
+
+  /**
+   * Source of one store, reading through the snapshots and writing into the latest one.
+   */
+  public final class SnapshotSource implements SourceInter<byte[], byte[]> {
+
+    private final SourceInter<byte[], byte[]> source;
+
+    private SnapshotSource(SourceInter<byte[], byte[]> source) {
+      this.source = source;
+    }
+
+    /**
+     * get the value of key from the snapshots only.
+     *
+     * @return null if no snapshot has the key, an empty array if it was removed
+     */
+    public byte[] getFromSnapshots(byte[] key) {
+      ByteArrayWrapper wrapped = new ByteArrayWrapper(key);
+      Iterator<Snapshot> iterator = stack.descendingIterator();
+      while (iterator.hasNext()) {
+        byte[] value = iterator.next().get(this, wrapped);
+        if (Objects.nonNull(value)) {
+          return value;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public byte[] getData(byte[] key) {
+      byte[] value = getFromSnapshots(key);
+      if (Objects.isNull(value)) {
+        return source.getData(key);
+      }
+      return value == REMOVED ? null : value;
+    }
+
+    @Override
+    public void putData(byte[] key, byte[] value) {
+      write(key, Objects.isNull(value) ? REMOVED : value);
+    }
+
+    @Override
+    public void putData(byte[] key, byte[] value, WriteOptions options) {
+      putData(key, value);
+    }
+
+    @Override
+    public void deleteData(byte[] key) {
+      write(key, REMOVED);
+    }
+
+    @Override
+    public void deleteData(byte[] key, WriteOptions options) {
+      deleteData(key);
+    }
+
+    @Override
+    public boolean flush() {
+      return source.flush();
+    }
+
+    /**
+     * Iterate the given view of the db with the snapshots applied. Only the writes of the
+     * snapshots are copied, the db is read as the iteration goes.
+     */
+    public DBIterator iterator(DBIterator dbIterator) {
+      if (stack.stream().noneMatch(snapshot -> snapshot.writes.containsKey(this))) {
+        return dbIterator;
+      }
+
+      TreeMap<ByteArrayWrapper, byte[]> writes = new TreeMap<>();
+      stack.forEach(snapshot -> snapshot.writes.getOrDefault(this, Collections.emptyMap())
+          .forEach((key, value) -> writes.put(key, value == REMOVED ? null : value)));
+      return new MergedIterator(dbIterator, writes);
+    }
+
+    /**
+     * drop the writes of all snapshots, only for reset of the underlying db.
+     */
+    public void clear() {
+      stack.forEach(snapshot -> snapshot.writes.remove(this));
+    }
+
+    private void write(byte[] key, byte[] value) {
+      ByteArrayWrapper wrapped = new ByteArrayWrapper(key);
+      if (disabled) {
+        // not revocable: write through and make sure no snapshot hides the new value
+        stack.forEach(snapshot -> snapshot.remove(this, wrapped));
+        if (value == REMOVED) {
+          source.deleteData(key);
+        } else {
+          source.putData(key, value);
+        }
+        return;
+      }
+
+      Snapshot snapshot = stack.peekLast();
+      if (Objects.isNull(snapshot)) {
+        snapshot = addIfEmpty();
+      }
+      snapshot.put(this, wrapped, value);
+    }
+
+    private void flatten(Map<ByteArrayWrapper, byte[]> values) {
+      values.forEach((key, value) -> {
+        if (value == REMOVED) {
+          source.deleteData(key.getData());
+        } else {
+          source.putData(key.getData(), value);
+        }
+      });
+    }
+  }
+}
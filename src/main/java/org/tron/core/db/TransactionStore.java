@@ -20,17 +20,18 @@ public class TransactionStore extends TronStoreWithRevoking<TransactionCapsule>
   @Autowired
   private TransactionStore(@Value("trans") String dbName) {
     super(dbName);
+    enableWriteBack();
   }
 
   @Override
   public TransactionCapsule get(byte[] key) throws BadItemException {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     return ArrayUtils.isEmpty(value) ? null : new TransactionCapsule(value);
   }
 
   @Override
   public boolean has(byte[] key) {
-    byte[] transaction = dbSource.getData(key);
+    byte[] transaction = getValue(key);
     logger.info("address is {}, transaction is {}", key, transaction);
     return null != transaction;
   }
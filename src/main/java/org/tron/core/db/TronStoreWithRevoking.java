@@ -1,16 +1,34 @@
 package org.tron.core.db;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
+import org.iq80.leveldb.WriteOptions;
+import org.tron.common.storage.SourceInter;
 import org.tron.core.capsule.ProtoCapsule;
+import org.tron.core.config.args.Args;
 import org.tron.core.db.AbstractRevokingStore.RevokingTuple;
+import org.tron.core.db.SnapshotRevokingStore.SnapshotSource;
+import org.tron.core.db.common.iterator.DBIterator;
 
 @Slf4j
 public abstract class TronStoreWithRevoking<T extends ProtoCapsule> extends TronDatabase<T> {
 
   private RevokingDatabase revokingDatabase;
 
+  private WriteBackCache<T> cache;
+
+  private Function<byte[], T> decoder;
+
+  private SourceInter<byte[], byte[]> source;
+
   protected TronStoreWithRevoking(String dbName) {
     this(dbName, RevokingStore.getInstance());
   }
@@ -19,6 +37,128 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> extends Tron
   protected TronStoreWithRevoking(String dbName, RevokingDatabase revokingDatabase) {
     super(dbName);
     this.revokingDatabase = revokingDatabase;
+    this.source = revokingDatabase.wrap(dbSource);
+  }
+
+  /**
+   * Put a write-back capsule cache between this store and its db. Must be called from the
+   * constructor of the store, before any read or write.
+   */
+  protected void enableWriteBackCache(Function<byte[], T> decoder, UnaryOperator<T> copier) {
+    this.cache = new WriteBackCache<>(dbSource, decoder, copier,
+        Args.getInstance().getStorage().getWriteBackCacheSize());
+    this.decoder = decoder;
+    this.source = revokingDatabase.wrap(cache);
+  }
+
+  /**
+   * Stage the writes of this store in memory until {@link #flush()}, without caching capsules.
+   * Must be called from the constructor of the store, before any read or write.
+   */
+  protected void enableWriteBack() {
+    this.cache = new WriteBackCache<>(dbSource);
+    this.source = revokingDatabase.wrap(cache);
+  }
+
+  /**
+   * Run the listener after the revoking database revoked or popped the writes of the stores.
+   */
+  protected void addRevokeListener(Runnable listener) {
+    revokingDatabase.addRevokeListener(listener);
+  }
+
+  /**
+   * The source the revoking store and all reads/writes of this store go through.
+   */
+  protected SourceInter<byte[], byte[]> getSource() {
+    return source;
+  }
+
+  /**
+   * Get the serialized value of key, reading through the write-back cache when enabled.
+   */
+  protected byte[] getValue(byte[] key) {
+    return getSource().getData(key);
+  }
+
+  /**
+   * Get a capsule through the write-back cache, only for stores with the cache enabled.
+   */
+  protected T getCapsule(byte[] key) {
+    if (source instanceof SnapshotSource) {
+      byte[] value = ((SnapshotSource) source).getFromSnapshots(key);
+      if (Objects.nonNull(value)) {
+        return ArrayUtils.isEmpty(value) ? null : decoder.apply(value);
+      }
+    }
+    return cache.get(key);
+  }
+
+  /**
+   * Warm up the capsule cache for key, a no-op for stores without capsule cache.
+   */
+  public void prefetch(byte[] key) {
+    if (Objects.nonNull(cache)) {
+      cache.prefetch(key);
+    }
+  }
+
+  /**
+   * Iterate the db with the not yet flushed modifications applied.
+   */
+  protected DBIterator getDbIterator() {
+    DBIterator iterator = Objects.isNull(cache) ? dbSource.iterator() : cache.iterator();
+    if (source instanceof SnapshotSource) {
+      return ((SnapshotSource) source).iterator(iterator);
+    }
+    return iterator;
+  }
+
+  /**
+   * Write all cached modifications to the db.
+   */
+  public void flush() {
+    if (Objects.nonNull(cache)) {
+      cache.flush();
+    }
+  }
+
+  /**
+   * Write all cached modifications to the db in one batch with the given options.
+   */
+  public void flush(WriteOptions options) {
+    if (Objects.nonNull(cache)) {
+      cache.flush(options);
+    }
+  }
+
+  /**
+   * Make all writes to the db durable: an empty synced batch syncs the log of the db.
+   */
+  public void sync() {
+    dbSource.updateByBatch(Collections.emptyMap(), new WriteOptions().sync(true));
+  }
+
+  /**
+   * The modifications the next flush writes, null values for deletes.
+   */
+  public Map<byte[], byte[]> getDirtyRows() {
+    return Objects.isNull(cache) ? Collections.emptyMap() : cache.getDirtyRows();
+  }
+
+  /**
+   * Stage rows replayed from the block journal, bypassing the revoking database. They reach the
+   * db with the next flush.
+   */
+  public void replay(Map<byte[], byte[]> rows) {
+    SourceInter<byte[], byte[]> target = Objects.isNull(cache) ? dbSource : cache;
+    rows.forEach((key, value) -> {
+      if (Objects.isNull(value)) {
+        target.deleteData(key);
+      } else {
+        target.putData(key, value);
+      }
+    });
   }
 
   @Override
@@ -27,12 +167,16 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> extends Tron
       return;
     }
     //logger.info("Address is {}, " + item.getClass().getSimpleName() + " is {}", key, item);
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(key);
     if (ArrayUtils.isNotEmpty(value)) {
       onModify(key, value);
     }
 
-    dbSource.putData(key, item.getData());
+    if (Objects.nonNull(cache) && source == cache) {
+      cache.put(key, item);
+    } else {
+      source.putData(key, item.getData());
+    }
 
     if (ArrayUtils.isEmpty(value)) {
       onCreate(key);
@@ -42,21 +186,60 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> extends Tron
   @Override
   public void delete(byte[] key) {
     onDelete(key);
-    dbSource.deleteData(key);
+    getSource().deleteData(key);
+  }
+
+  /**
+   * Delete the rows whose key starts with prefix from the db in one batch, bypassing the revoking
+   * database and the block journal. Only for rows that no block can revoke back to.
+   */
+  protected void deleteByPrefix(byte[] prefix) {
+    Map<byte[], byte[]> rows = new HashMap<>();
+    try (DBIterator iterator = dbSource.iterator()) {
+      while (iterator.hasNext()) {
+        byte[] key = iterator.next().getKey();
+        if (key.length >= prefix.length
+            && Arrays.equals(Arrays.copyOf(key, prefix.length), prefix)) {
+          rows.put(key, null);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    if (!rows.isEmpty()) {
+      dbSource.updateByBatch(rows);
+    }
+  }
+
+  @Override
+  public void reset() {
+    if (source instanceof SnapshotSource) {
+      ((SnapshotSource) source).clear();
+    }
+    if (Objects.nonNull(cache)) {
+      cache.clear();
+    }
+    super.reset();
+  }
+
+  @Override
+  public void close() {
+    flush();
+    super.close();
   }
 
   /**
    * This should be called just after an object is created
    */
   private void onCreate(byte[] key) {
-    revokingDatabase.onCreate(new RevokingTuple(dbSource, key), null);
+    revokingDatabase.onCreate(new RevokingTuple(getSource(), key), null);
   }
 
   /**
    * This should be called just before an object is modified
    */
   private void onModify(byte[] key, byte[] value) {
-    revokingDatabase.onModify(new RevokingTuple(dbSource, key), value);
+    revokingDatabase.onModify(new RevokingTuple(getSource(), key), value);
   }
 
   /**
@@ -64,8 +247,8 @@ public abstract class TronStoreWithRevoking<T extends ProtoCapsule> extends Tron
    */
   private void onDelete(byte[] key) {
     byte[] value;
-    if (Objects.nonNull(value = dbSource.getData(key))) {
-      revokingDatabase.onRemove(new RevokingTuple(dbSource, key), value);
+    if (Objects.nonNull(value = getValue(key))) {
+      revokingDatabase.onRemove(new RevokingTuple(getSource(), key), value);
     }
   }
 }
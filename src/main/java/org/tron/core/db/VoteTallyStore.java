@@ -0,0 +1,106 @@
+package org.tron.core.db;
+
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.db.common.iterator.DBIterator;
+
+/**
+ * Running tally of the votes of each maintenance period, per witness: the sum of the vote
+ * changes of the voters and the number of voters whose votes name the witness. It is kept up to
+ * date by {@link VotesStore} on every put, so that maintenance does not scan the votes. Keys are
+ * the period followed by the witness address, like the keys of the votes.
+ *
+ * <p>Writes go through the revoking database like the votes themselves, so they are undone with
+ * the block or transaction that made them.
+ */
+@Component
+public class VoteTallyStore extends TronStoreWithRevoking<BytesCapsule> {
+
+  private static final int VALUE_LENGTH = 2 * Long.BYTES;
+
+  @Autowired
+  private VoteTallyStore(@Value("vote_tally") String dbName) {
+    super(dbName);
+    enableWriteBack();
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = getValue(key);
+    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+  }
+
+  @Override
+  public boolean has(byte[] key) {
+    return ArrayUtils.isNotEmpty(getValue(key));
+  }
+
+  /**
+   * add votes and voters to the tally of witness in period, the entry is removed once no voter
+   * names it.
+   */
+  public void add(long period, ByteString witness, long votes, long voters) {
+    if (votes == 0 && voters == 0) {
+      return;
+    }
+    byte[] key = VotesStore.periodKey(period, witness.toByteArray());
+    byte[] value = getValue(key);
+    long tallyVotes = votes;
+    long tallyVoters = voters;
+    if (ArrayUtils.isNotEmpty(value)) {
+      tallyVotes += Longs.fromByteArray(value);
+      tallyVoters += Longs.fromByteArray(Arrays.copyOfRange(value, Long.BYTES, VALUE_LENGTH));
+    }
+    if (tallyVoters <= 0) {
+      delete(key);
+      return;
+    }
+    put(key, new BytesCapsule(encode(tallyVotes, tallyVoters)));
+  }
+
+  /**
+   * the vote change of every witness named by at least one voter of period. The store only holds
+   * the rows of the last periods, so reading them all is bounded by the number of witnesses.
+   */
+  public Map<ByteString, Long> getVoteCounts(long period) {
+    byte[] prefix = Longs.toByteArray(period);
+    Map<ByteString, Long> voteCounts = Maps.newHashMap();
+    try (DBIterator iterator = getDbIterator()) {
+      while (iterator.hasNext()) {
+        Entry<byte[], byte[]> entry = iterator.next();
+        byte[] key = entry.getKey();
+        if (Arrays.equals(Arrays.copyOf(key, Long.BYTES), prefix)) {
+          voteCounts.put(ByteString.copyFrom(key, Long.BYTES, key.length - Long.BYTES),
+              Longs.fromByteArray(entry.getValue()));
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return voteCounts;
+  }
+
+  /**
+   * drop the tally of period from the db, see {@link VotesStore#newPeriod()}.
+   */
+  void deletePeriod(long period) {
+    deleteByPrefix(Longs.toByteArray(period));
+  }
+
+  private static byte[] encode(long votes, long voters) {
+    byte[] value = new byte[VALUE_LENGTH];
+    System.arraycopy(Longs.toByteArray(votes), 0, value, 0, Long.BYTES);
+    System.arraycopy(Longs.toByteArray(voters), 0, value, Long.BYTES, Long.BYTES);
+    return value;
+  }
+}
@@ -1,22 +1,53 @@
 package org.tron.core.db;
 
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.core.capsule.VotesCapsule;
+import org.tron.core.db.common.iterator.DBIterator;
 
+/**
+ * The votes cast in the current maintenance period, by voter address. Rows are keyed by the
+ * period followed by the address, so that maintenance clears the votes by starting the next
+ * period: one revocable write instead of a delete per voter.
+ */
+@Slf4j
 @Component
 public class VotesStore extends TronStoreWithRevoking<VotesCapsule> {
 
+  @Autowired
+  private VoteTallyStore voteTallyStore;
+
+  @Autowired
+  private DynamicPropertiesStore dynamicPropertiesStore;
+
   @Autowired
   public VotesStore(@Value("votes") String dbName) {
     super(dbName);
+    enableWriteBack();
+  }
+
+  static byte[] periodKey(long period, byte[] key) {
+    byte[] periodKey = new byte[Long.BYTES + key.length];
+    System.arraycopy(Longs.toByteArray(period), 0, periodKey, 0, Long.BYTES);
+    System.arraycopy(key, 0, periodKey, Long.BYTES, key.length);
+    return periodKey;
   }
 
   @Override
   public VotesCapsule get(byte[] key) {
-    byte[] value = dbSource.getData(key);
+    byte[] value = getValue(periodKey(getPeriod(), key));
     return ArrayUtils.isEmpty(value) ? null : new VotesCapsule(value);
   }
 
@@ -27,16 +58,118 @@ public class VotesStore extends TronStoreWithRevoking<VotesCapsule> {
    */
   @Override
   public boolean has(byte[] key) {
-    byte[] account = dbSource.getData(key);
+    byte[] account = getValue(periodKey(getPeriod(), key));
     return null != account;
   }
 
+  /**
+   * store the votes of a voter and move the tally from its previous votes to these.
+   */
   @Override
   public void put(byte[] key, VotesCapsule item) {
-    super.put(key, item);
+    if (Objects.isNull(key) || Objects.isNull(item)) {
+      return;
+    }
+    long period = getPeriod();
+    VotesCapsule previous = get(key);
+    super.put(periodKey(period, key), item);
+    moveTally(period, previous, item);
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    long period = getPeriod();
+    VotesCapsule previous = get(key);
+    super.delete(periodKey(period, key));
+    moveTally(period, previous, null);
+  }
+
+  private void moveTally(long period, VotesCapsule previous, VotesCapsule current) {
+    Map<ByteString, long[]> tally = new HashMap<>();
+    if (previous != null) {
+      previous.getVoteChanges().forEach((witness, votes) -> {
+        long[] change = tally.computeIfAbsent(witness, w -> new long[2]);
+        change[0] -= votes;
+        change[1]--;
+      });
+    }
+    if (current != null) {
+      current.getVoteChanges().forEach((witness, votes) -> {
+        long[] change = tally.computeIfAbsent(witness, w -> new long[2]);
+        change[0] += votes;
+        change[1]++;
+      });
+    }
+    tally.forEach((witness, change) -> voteTallyStore.add(period, witness, change[0], change[1]));
+  }
+
+  /**
+   * the vote change of every witness named by the votes of the period, like summing
+   * {@link VotesCapsule#getVoteChanges()} over the store but without reading it.
+   */
+  public Map<ByteString, Long> countVotes() {
+    return voteTallyStore.getVoteCounts(getPeriod());
+  }
+
+  /**
+   * Start the next maintenance period with no votes, as part of the block. The rows of the
+   * period before the current one are dropped from the db right away: a period lasts far longer
+   * than the blocks that can still be revoked, so no revoke can bring them back.
+   */
+  public void newPeriod() {
+    long period = getPeriod();
+    dynamicPropertiesStore.saveVotesPeriod(period + 1);
+    if (period > 0) {
+      deleteByPrefix(Longs.toByteArray(period - 1));
+      voteTallyStore.deletePeriod(period - 1);
+    }
+  }
+
+  /**
+   * key the votes of a db written before they were keyed by period with period 0, and build
+   * their tally.
+   */
+  public void initVoteTally() {
+    try {
+      dynamicPropertiesStore.getVotesPeriod();
+      return;
+    } catch (IllegalArgumentException e) {
+      logger.info("key the votes by maintenance period");
+    }
+
+    List<Entry<byte[], byte[]>> votes = new ArrayList<>();
+    try (DBIterator iterator = getDbIterator()) {
+      while (iterator.hasNext()) {
+        votes.add(iterator.next());
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    voteTallyStore.reset();
+    dynamicPropertiesStore.saveVotesPeriod(0);
+    for (Entry<byte[], byte[]> entry : votes) {
+      super.delete(entry.getKey());
+      put(entry.getKey(), new VotesCapsule(entry.getValue()));
+    }
+  }
+
+  /**
+   * drop the votes and their tally from the db, outside of any block.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    voteTallyStore.reset();
+  }
+
+  /**
+   * iterate the rows of the periods still in the db, keyed by period and voter address.
+   */
+  public DBIterator getIterator() {
+    return getDbIterator();
   }
 
-  public org.tron.core.db.common.iterator.DBIterator getIterator() {
-    return dbSource.iterator();
+  private long getPeriod() {
+    return dynamicPropertiesStore.getVotesPeriod();
   }
-}
\ No newline at end of file
+}
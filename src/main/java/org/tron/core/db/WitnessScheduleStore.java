@@ -3,7 +3,9 @@ package org.tron.core.db;
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.tron.common.utils.ByteArray;
 import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.witness.WitnessSchedule;
 
 @Slf4j
 @Component
@@ -21,9 +24,15 @@ public class WitnessScheduleStore extends TronStoreWithRevoking<BytesCapsule> {
 
   private static final int ADDRESS_BYTE_ARRAY_LENGTH = 21;
 
+  // decoded active witnesses, replaced on write and dropped when the revoking store revokes
+  private final AtomicReference<CachedSchedule> activeWitnessSchedule =
+      new AtomicReference<>(new CachedSchedule(0, null));
+
   @Autowired
   private WitnessScheduleStore(@Value("witness_schedule") String dbName) {
     super(dbName);
+    enableWriteBack();
+    addRevokeListener(() -> publish(null));
   }
 
   @Override
@@ -50,7 +59,7 @@ public class WitnessScheduleStore extends TronStoreWithRevoking<BytesCapsule> {
 
   private List<ByteString> getData(byte[] species) {
     List<ByteString> witnessesAddressList = new ArrayList<>();
-    return Optional.ofNullable(this.dbSource.getData(species))
+    return Optional.ofNullable(getValue(species))
         .map(ba -> {
           int len = ba.length / ADDRESS_BYTE_ARRAY_LENGTH;
           for (int i = 0; i < len; ++i) {
@@ -67,10 +76,40 @@ public class WitnessScheduleStore extends TronStoreWithRevoking<BytesCapsule> {
 
   public void saveActiveWitnesses(List<ByteString> witnessesAddressList) {
     saveData(ACTIVE_WITNESSES, witnessesAddressList);
+    publish(new WitnessSchedule(witnessesAddressList));
   }
 
+  /**
+   * a copy of the active witnesses, see {@link #getActiveWitnessSchedule()} to read them without
+   * copying.
+   */
   public List<ByteString> getActiveWitnesses() {
-    return getData(ACTIVE_WITNESSES);
+    return new ArrayList<>(getActiveWitnessSchedule().getWitnesses());
+  }
+
+  /**
+   * the active witnesses, decoded from the db only after a change was revoked. The decoded
+   * schedule is only kept if no write or revoke happened since the cache was found empty, so a
+   * stale read never hides a newer schedule.
+   */
+  public WitnessSchedule getActiveWitnessSchedule() {
+    CachedSchedule cached = activeWitnessSchedule.get();
+    if (cached.schedule != null) {
+      return cached.schedule;
+    }
+    WitnessSchedule schedule = new WitnessSchedule(getData(ACTIVE_WITNESSES));
+    activeWitnessSchedule.compareAndSet(cached, new CachedSchedule(cached.version, schedule));
+    return schedule;
+  }
+
+  @Override
+  public void replay(Map<byte[], byte[]> rows) {
+    super.replay(rows);
+    publish(null);
+  }
+
+  private void publish(WitnessSchedule schedule) {
+    activeWitnessSchedule.updateAndGet(cached -> new CachedSchedule(cached.version + 1, schedule));
   }
 
   public void saveCurrentShuffledWitnesses(List<ByteString> witnessesAddressList) {
@@ -80,4 +119,15 @@ public class WitnessScheduleStore extends TronStoreWithRevoking<BytesCapsule> {
   public List<ByteString> getCurrentShuffledWitnesses() {
     return getData(CURRENT_SHUFFLED_WITNESSES);
   }
+
+  private static final class CachedSchedule {
+
+    private final long version;
+    private final WitnessSchedule schedule;
+
+    private CachedSchedule(long version, WitnessSchedule schedule) {
+      this.version = version;
+      this.schedule = schedule;
+    }
+  }
 }
@@ -1,12 +1,12 @@
 package org.tron.core.db;
 
+import com.google.common.collect.Streams;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,17 +22,17 @@ public class WitnessStore extends TronStoreWithRevoking<WitnessCapsule> {
   @Autowired
   protected WitnessStore(@Value("witness") String dbName) {
     super(dbName);
+    enableWriteBackCache(WitnessCapsule::new, item -> new WitnessCapsule(item.getInstance()));
   }
 
   @Override
   public WitnessCapsule get(byte[] key) {
-    byte[] value = dbSource.getData(key);
-    return ArrayUtils.isEmpty(value) ? null : new WitnessCapsule(value);
+    return getCapsule(key);
   }
 
   @Override
   public boolean has(byte[] key) {
-    byte[] account = dbSource.getData(key);
+    byte[] account = getValue(key);
     return null != account;
   }
 
@@ -48,16 +48,14 @@ public class WitnessStore extends TronStoreWithRevoking<WitnessCapsule> {
    * get all witnesses.
    */
   public List<WitnessCapsule> getAllWitnesses() {
-    return dbSource
-        .allValues()
-        .stream()
-        .map(bytes -> new WitnessCapsule(bytes))
+    return Streams.stream(getDbIterator())
+        .map(entry -> new WitnessCapsule(entry.getValue()))
         .collect(Collectors.toList());
   }
 
   @Override
   public Iterator<Entry<byte[], WitnessCapsule>> iterator() {
-    return new WitnessIterator(dbSource.iterator());
+    return new WitnessIterator(getDbIterator());
   }
 
   @Override
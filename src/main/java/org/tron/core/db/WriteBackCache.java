@@ -0,0 +1,282 @@
+package org.tron.core.db;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.iq80.leveldb.WriteOptions;
+import org.tron.common.storage.SourceInter;
+import org.tron.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.tron.core.capsule.ProtoCapsule;
+import org.tron.core.db.common.iterator.DBIterator;
+import org.tron.core.db.common.iterator.MergedIterator;
+
+/**
+ * Size-bounded, write-back capsule cache in front of a LevelDB source.
+ *
+ * <p>Capsules are kept decoded and are only serialized when somebody needs the bytes (revoking
+ * or flush). Dirty entries stay in memory until {@link #flush()} writes them in a single
+ * WriteBatch. The revoking store sees this cache as the source of a store, so revoke and pop
+ * go through it and the cached state never diverges from what will be flushed.
+ *
+ * <p>Without decoder the cache only stages serialized writes and keeps nothing once flushed.
+ */
+@Slf4j
+public class WriteBackCache<T extends ProtoCapsule> implements SourceInter<byte[], byte[]> {
+
+  private static final WriteOptions DEFAULT_WRITE_OPTIONS = new WriteOptions();
+
+  private final LevelDbDataSourceImpl dbSource;
+  private final Function<byte[], T> decoder;
+  private final UnaryOperator<T> copier;
+  private final int maxSize;
+
+  private final Map<ByteArrayWrapper, Entry<T>> dirty = new LinkedHashMap<>();
+  private final LinkedHashMap<ByteArrayWrapper, Entry<T>> clean;
+
+  // bumped by every write, so that a prefetch can tell if its db read is still current
+  private long writeVersion = 0;
+
+  /**
+   * @param decoder build a capsule from its serialized bytes
+   * @param copier build a capsule sharing the (immutable) proto of the given one, so that callers
+   * mutating a returned capsule never touch the cached copy
+   */
+  public WriteBackCache(LevelDbDataSourceImpl dbSource, Function<byte[], T> decoder,
+      UnaryOperator<T> copier, int maxSize) {
+    this.dbSource = dbSource;
+    this.decoder = decoder;
+    this.copier = copier;
+    this.maxSize = maxSize;
+    this.clean = new LinkedHashMap<ByteArrayWrapper, Entry<T>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<ByteArrayWrapper, Entry<T>> eldest) {
+        return size() > WriteBackCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Stage writes only: no decoded capsules, nothing kept after flush.
+   */
+  public WriteBackCache(LevelDbDataSourceImpl dbSource) {
+    this(dbSource, null, null, 0);
+  }
+
+  /**
+   * get a private copy of the cached capsule, null if the key does not exist.
+   */
+  public synchronized T get(byte[] key) {
+    Entry<T> entry = load(key);
+    if (entry.removed) {
+      return null;
+    }
+    if (entry.capsule == null) {
+      entry.capsule = decoder.apply(entry.bytes);
+    }
+    return copier.apply(entry.capsule);
+  }
+
+  public synchronized void put(byte[] key, T item) {
+    if (Objects.isNull(copier)) {
+      markDirty(new ByteArrayWrapper(key), Entry.ofBytes(item.getData()));
+    } else {
+      markDirty(new ByteArrayWrapper(key), Entry.ofCapsule(copier.apply(item)));
+    }
+  }
+
+  public synchronized boolean has(byte[] key) {
+    return !load(key).removed;
+  }
+
+  @Override
+  public synchronized byte[] getData(byte[] key) {
+    Entry<T> entry = load(key);
+    if (entry.removed) {
+      return null;
+    }
+    return entry.getBytes();
+  }
+
+  @Override
+  public synchronized void putData(byte[] key, byte[] value) {
+    markDirty(new ByteArrayWrapper(key), Entry.ofBytes(value));
+  }
+
+  @Override
+  public void putData(byte[] key, byte[] value, WriteOptions options) {
+    putData(key, value);
+  }
+
+  @Override
+  public synchronized void deleteData(byte[] key) {
+    markDirty(new ByteArrayWrapper(key), Entry.removed());
+  }
+
+  @Override
+  public void deleteData(byte[] key, WriteOptions options) {
+    deleteData(key);
+  }
+
+  /**
+   * write all dirty entries to the underlying db in one batch.
+   *
+   * @return true if something was written
+   */
+  @Override
+  public boolean flush() {
+    return flush(DEFAULT_WRITE_OPTIONS);
+  }
+
+  /**
+   * write all dirty entries to the underlying db in one batch.
+   *
+   * @return true if something was written
+   */
+  public synchronized boolean flush(WriteOptions options) {
+    if (dirty.isEmpty()) {
+      return false;
+    }
+
+    Map<byte[], byte[]> rows = getDirtyRows();
+    dbSource.updateByBatch(rows, options);
+    logger.debug("flush {} entries to {}", rows.size(), dbSource.getDBName());
+
+    if (maxSize > 0) {
+      clean.putAll(dirty);
+    }
+    dirty.clear();
+    return true;
+  }
+
+  /**
+   * the dirty entries as the next flush writes them, null values for deletes.
+   */
+  public synchronized Map<byte[], byte[]> getDirtyRows() {
+    Map<byte[], byte[]> rows = new HashMap<>(dirty.size());
+    dirty.forEach((key, entry) -> rows.put(key.getData(), entry.removed ? null : entry.getBytes()));
+    return rows;
+  }
+
+  /**
+   * Iterate the db in key order with the dirty entries applied, without flushing them. Only the
+   * dirty entries are copied, the db is read as the iteration goes.
+   */
+  public synchronized DBIterator iterator() {
+    if (dirty.isEmpty()) {
+      return dbSource.iterator();
+    }
+
+    TreeMap<ByteArrayWrapper, byte[]> writes = new TreeMap<>();
+    dirty.forEach((key, entry) -> writes.put(key, entry.removed ? null : entry.getBytes()));
+    return new MergedIterator(dbSource.iterator(), writes);
+  }
+
+  /**
+   * Load and decode the capsule of key if it is not cached yet. The db read and the decoding
+   * happen outside the lock, so several threads can warm up the cache at the same time.
+   */
+  public void prefetch(byte[] key) {
+    if (maxSize <= 0) {
+      return;
+    }
+
+    ByteArrayWrapper wrapped = new ByteArrayWrapper(key);
+    long version;
+    synchronized (this) {
+      if (dirty.containsKey(wrapped) || clean.containsKey(wrapped)) {
+        return;
+      }
+      version = writeVersion;
+    }
+
+    byte[] value = dbSource.getData(key);
+    Entry<T> entry = ArrayUtils.isEmpty(value) ? Entry.removed() : Entry.ofBytes(value);
+    if (!entry.removed) {
+      entry.capsule = decoder.apply(value);
+    }
+
+    synchronized (this) {
+      // a write in the meantime is newer than what we read, even once flushed and evicted
+      if (version == writeVersion && !clean.containsKey(wrapped)) {
+        clean.put(wrapped, entry);
+      }
+    }
+  }
+
+  /**
+   * drop everything, dirty entries included. Only for reset of the underlying db.
+   */
+  public synchronized void clear() {
+    writeVersion++;
+    dirty.clear();
+    clean.clear();
+  }
+
+  public synchronized int getDirtySize() {
+    return dirty.size();
+  }
+
+  private Entry<T> load(byte[] key) {
+    ByteArrayWrapper wrapped = new ByteArrayWrapper(key);
+    Entry<T> entry = dirty.get(wrapped);
+    if (entry == null) {
+      entry = clean.get(wrapped);
+    }
+    if (entry == null) {
+      byte[] value = dbSource.getData(key);
+      entry = ArrayUtils.isEmpty(value) ? Entry.removed() : Entry.ofBytes(value);
+      if (maxSize > 0) {
+        clean.put(wrapped, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Dirty entries are never flushed early: they are bounded by the modifications of one block
+   * plus the pending transactions, and flushing half a block would break the block atomicity.
+   */
+  private void markDirty(ByteArrayWrapper key, Entry<T> entry) {
+    writeVersion++;
+    clean.remove(key);
+    dirty.put(key, entry);
+  }
+
+  private static final class Entry<T extends ProtoCapsule> {
+
+    private T capsule;
+    private byte[] bytes;
+    private final boolean removed;
+
+    private Entry(T capsule, byte[] bytes, boolean removed) {
+      this.capsule = capsule;
+      this.bytes = bytes;
+      this.removed = removed;
+    }
+
+    static <T extends ProtoCapsule> Entry<T> ofCapsule(T capsule) {
+      return new Entry<>(Objects.requireNonNull(capsule), null, false);
+    }
+
+    static <T extends ProtoCapsule> Entry<T> ofBytes(byte[] bytes) {
+      return ArrayUtils.isEmpty(bytes) ? removed() : new Entry<>(null, bytes, false);
+    }
+
+    static <T extends ProtoCapsule> Entry<T> removed() {
+      return new Entry<>(null, null, true);
+    }
+
+    byte[] getBytes() {
+      if (bytes == null && capsule != null) {
+        bytes = capsule.getData();
+      }
+      return bytes;
+    }
+  }
+}
@@ -73,7 +73,7 @@ public class BlockIndex extends AbstractIndex<BlockCapsule, Block> {
             bytes -> {
               Block block = getObject(bytes);
               return block.getTransactionsList().stream()
-                  .map(t -> Sha256Hash.of(t.getRawData().toByteArray()).toString())
+                  .map(t -> Sha256Hash.of(t.getRawData()).toString())
                   .collect(Collectors.toList());
             });
     WITNESS_ID =
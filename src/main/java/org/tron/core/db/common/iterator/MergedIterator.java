@@ -0,0 +1,65 @@
+package org.tron.core.db.common.iterator;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import com.google.common.collect.PeekingIterator;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import org.tron.common.utils.FastByteComparisons;
+import org.tron.core.db.ByteArrayWrapper;
+
+/**
+ * Iterate a db in key order with pending writes applied on the fly: the db is read lazily, only
+ * the pending writes are held in memory. A pending write with a null value removes the key.
+ */
+public final class MergedIterator extends AbstractIterator<Entry<byte[], byte[]>>
+    implements DBIterator {
+
+  private final DBIterator dbIterator;
+  private final PeekingIterator<Entry<byte[], byte[]>> db;
+  private final PeekingIterator<Entry<ByteArrayWrapper, byte[]>> writes;
+
+  public MergedIterator(DBIterator dbIterator, SortedMap<ByteArrayWrapper, byte[]> writes) {
+    this.dbIterator = dbIterator;
+    this.db = Iterators.peekingIterator(dbIterator);
+    this.writes = Iterators.peekingIterator(writes.entrySet().iterator());
+  }
+
+  @Override
+  protected Map.Entry<byte[], byte[]> computeNext() {
+    while (db.hasNext() || writes.hasNext()) {
+      int order;
+      if (!writes.hasNext()) {
+        order = -1;
+      } else if (!db.hasNext()) {
+        order = 1;
+      } else {
+        byte[] dbKey = db.peek().getKey();
+        byte[] writeKey = writes.peek().getKey().getData();
+        order = FastByteComparisons.compareTo(
+            dbKey, 0, dbKey.length, writeKey, 0, writeKey.length);
+      }
+
+      if (order < 0) {
+        return db.next();
+      }
+      if (order == 0) {
+        // overwritten or removed by the pending write
+        db.next();
+      }
+      Entry<ByteArrayWrapper, byte[]> write = writes.next();
+      if (write.getValue() != null) {
+        return Maps.immutableEntry(write.getKey().getData(), write.getValue());
+      }
+    }
+    return endOfData();
+  }
+
+  @Override
+  public void close() throws IOException {
+    dbIterator.close();
+  }
+}
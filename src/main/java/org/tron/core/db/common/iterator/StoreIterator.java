@@ -12,19 +12,30 @@ public final class StoreIterator implements org.tron.core.db.common.iterator.DBI
 
   private DBIterator dbIterator;
   private boolean first = true;
+  private boolean closed = false;
 
   public StoreIterator(DBIterator dbIterator) {
     this.dbIterator = dbIterator;
   }
 
+  /**
+   * close the db iterator, once: hasNext already closes it when the end is reached and leveldbjni
+   * fails on a second close.
+   */
   @Override
   public void close() throws IOException {
-    dbIterator.close();
+    if (!closed) {
+      closed = true;
+      dbIterator.close();
+    }
   }
 
   @Override
   public boolean hasNext() {
     boolean hasNext = false;
+    if (closed) {
+      return false;
+    }
     // true is first item
     try {
       if (first) {
@@ -33,12 +44,12 @@ public final class StoreIterator implements org.tron.core.db.common.iterator.DBI
       }
 
       if (!(hasNext = dbIterator.hasNext())) { // false is last item
-        dbIterator.close();
+        close();
       }
     } catch (Exception e) {
       logger.debug(e.getMessage(), e);
       try {
-        dbIterator.close();
+        close();
       } catch (IOException e1) {
         logger.debug(e1.getMessage(), e1);
       }
@@ -0,0 +1,60 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.BlockTransactions;
+import org.tron.protos.Protocol.Transaction;
+
+public class BlockTrxsMessage extends TronMessage {
+
+  private BlockTransactions trxs;
+
+  private List<TransactionCapsule> transactionCapsules;
+
+  public BlockTrxsMessage(byte[] data) throws Exception {
+    this.type = MessageTypes.BLOCK_TRXS.asByte();
+    this.data = data;
+    this.trxs = BlockTransactions.parseFrom(data);
+    this.transactionCapsules = trxs.getTransactionsList().stream()
+        .map(TransactionCapsule::new).collect(Collectors.toList());
+  }
+
+  public BlockTrxsMessage(BlockId blockId, List<Transaction> transactions) {
+    this.trxs = BlockTransactions.newBuilder()
+        .setBlockId(blockId.getByteString())
+        .addAllTransactions(transactions)
+        .build();
+    this.type = MessageTypes.BLOCK_TRXS.asByte();
+    this.data = trxs.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return new BlockId(Sha256Hash.wrap(trxs.getBlockId().toByteArray()));
+  }
+
+  public List<Transaction> getTransactions() {
+    return trxs.getTransactionsList();
+  }
+
+  /**
+   * the capsules of the received transactions, which keep the hashes and signature checks of
+   * the decoder. Null for a message we send.
+   */
+  public List<TransactionCapsule> getTransactionCapsules() {
+    return transactionCapsules;
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(trxs.getTransactionsCount()).toString();
+  }
+}
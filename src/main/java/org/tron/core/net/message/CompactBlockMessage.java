@@ -0,0 +1,64 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Protocol.Block;
+import org.tron.protos.Protocol.BlockHeader;
+import org.tron.protos.Protocol.CompactBlock;
+
+public class CompactBlockMessage extends TronMessage {
+
+  private CompactBlock compactBlock;
+
+  private BlockId blockId;
+
+  public CompactBlockMessage(byte[] data) throws Exception {
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.data = data;
+    this.compactBlock = CompactBlock.parseFrom(data);
+  }
+
+  public CompactBlockMessage(BlockCapsule block) {
+    CompactBlock.Builder builder = CompactBlock.newBuilder()
+        .setBlockHeader(block.getInstance().getBlockHeader());
+    block.getTransactions().forEach(trx ->
+        builder.addTransactionIds(trx.getTransactionId().getByteString()));
+    this.compactBlock = builder.build();
+    this.blockId = block.getBlockId();
+    this.type = MessageTypes.COMPACT_BLOCK.asByte();
+    this.data = compactBlock.toByteArray();
+  }
+
+  public BlockHeader getBlockHeader() {
+    return compactBlock.getBlockHeader();
+  }
+
+  public BlockId getBlockId() {
+    if (blockId == null) {
+      blockId = new BlockCapsule(Block.newBuilder().setBlockHeader(getBlockHeader()).build())
+          .getBlockId();
+    }
+    return blockId;
+  }
+
+  public List<Sha256Hash> getTransactionIds() {
+    return compactBlock.getTransactionIdsList().stream()
+        .map(id -> Sha256Hash.wrap(id.toByteArray()))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(compactBlock.getTransactionIdsCount()).toString();
+  }
+}
@@ -0,0 +1,45 @@
+package org.tron.core.net.message;
+
+import java.util.List;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.protos.Protocol.BlockTransactions;
+
+public class FetchBlockTrxsMessage extends TronMessage {
+
+  private BlockTransactions request;
+
+  public FetchBlockTrxsMessage(byte[] data) throws Exception {
+    this.type = MessageTypes.FETCH_BLOCK_TRXS.asByte();
+    this.data = data;
+    this.request = BlockTransactions.parseFrom(data);
+  }
+
+  public FetchBlockTrxsMessage(BlockId blockId, List<Integer> indexes) {
+    this.request = BlockTransactions.newBuilder()
+        .setBlockId(blockId.getByteString())
+        .addAllIndexes(indexes)
+        .build();
+    this.type = MessageTypes.FETCH_BLOCK_TRXS.asByte();
+    this.data = request.toByteArray();
+  }
+
+  public BlockId getBlockId() {
+    return new BlockId(Sha256Hash.wrap(request.getBlockId().toByteArray()));
+  }
+
+  public List<Integer> getIndexes() {
+    return request.getIndexesList();
+  }
+
+  @Override
+  public Class<?> getAnswerMessage() {
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder().append(super.toString()).append(getBlockId().getString())
+        .append(", trx size: ").append(request.getIndexesCount()).toString();
+  }
+}
@@ -21,6 +21,12 @@ public class TransactionMessage extends TronMessage {
     this.data = trx.toByteArray();
   }
 
+  public TransactionMessage(TransactionCapsule trx) {
+    this.transactionCapsule = trx;
+    this.type = MessageTypes.TRX.asByte();
+    this.data = trx.getData();
+  }
+
   @Override
   public String toString() {
     return new StringBuilder().append(super.toString())
@@ -1,7 +1,8 @@
 package org.tron.core.net.message;
 
 import java.util.List;
-
+import java.util.stream.Collectors;
+import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.exception.P2pException;
 import org.tron.protos.Protocol;
 import org.tron.protos.Protocol.Transaction;
@@ -10,6 +11,8 @@ public class TransactionsMessage extends TronMessage {
 
   private Protocol.Transactions transactions;
 
+  private List<TransactionCapsule> transactionCapsules;
+
   public TransactionsMessage(List<Transaction> trxs) {
     Protocol.Transactions.Builder builder = Protocol.Transactions.newBuilder();
     trxs.forEach(trx -> builder.addTransactions(trx));
@@ -22,12 +25,22 @@ public class TransactionsMessage extends TronMessage {
     this.type = MessageTypes.TRXS.asByte();
     this.data = data;
     this.transactions = Protocol.Transactions.parseFrom(data);
+    this.transactionCapsules = this.transactions.getTransactionsList().stream()
+        .map(TransactionCapsule::new).collect(Collectors.toList());
   }
 
   public Protocol.Transactions getTransactions() {
     return transactions;
   }
 
+  /**
+   * the capsules of the received transactions, which keep the hashes and signature checks of
+   * the decoder. Null for a message we send.
+   */
+  public List<TransactionCapsule> getTransactionCapsules() {
+    return transactionCapsules;
+  }
+
   @Override
   public String toString() {
     return new StringBuilder().append(super.toString()).append("trx size: ")
@@ -6,13 +6,13 @@ import static org.tron.core.config.Parameter.NetConstants.MSG_CACHE_DURATION_IN_
 import static org.tron.core.config.Parameter.NetConstants.NET_MAX_TRX_PER_SECOND;
 import static org.tron.core.config.Parameter.NodeConstant.MAX_BLOCKS_ALREADY_FETCHED;
 import static org.tron.core.config.Parameter.NodeConstant.MAX_BLOCKS_IN_PROCESS;
-import static org.tron.core.config.Parameter.NodeConstant.MAX_BLOCKS_SYNC_FROM_ONE_PEER;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Deque;
@@ -22,6 +22,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -31,6 +32,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javafx.util.Pair;
@@ -41,6 +43,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.tron.common.overlay.message.Message;
 import org.tron.common.overlay.server.Channel.TronState;
+import org.tron.common.overlay.server.NetMetrics;
 import org.tron.common.overlay.server.SyncPool;
 import org.tron.common.utils.ExecutorLoop;
 import org.tron.common.utils.Sha256Hash;
@@ -48,6 +51,7 @@ import org.tron.common.utils.SlidingWindowCounter;
 import org.tron.common.utils.Time;
 import org.tron.core.capsule.BlockCapsule;
 import org.tron.core.capsule.BlockCapsule.BlockId;
+import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.config.Parameter.ChainConstant;
 import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.config.Parameter.NodeConstant;
@@ -59,7 +63,10 @@ import org.tron.core.exception.TraitorPeerException;
 import org.tron.core.exception.TronException;
 import org.tron.core.exception.UnLinkedBlockException;
 import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.BlockTrxsMessage;
 import org.tron.core.net.message.ChainInventoryMessage;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.core.net.message.FetchBlockTrxsMessage;
 import org.tron.core.net.message.FetchInvDataMessage;
 import org.tron.core.net.message.InventoryMessage;
 import org.tron.core.net.message.ItemNotFound;
@@ -73,7 +80,6 @@ import org.tron.core.net.peer.PeerConnectionDelegate;
 import org.tron.protos.Protocol;
 import org.tron.protos.Protocol.Inventory.InventoryType;
 import org.tron.protos.Protocol.ReasonCode;
-import org.tron.protos.Protocol.Transaction;
 
 @Slf4j
 @Component
@@ -90,6 +96,13 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
       .maximumSize(10).expireAfterWrite(60, TimeUnit.SECONDS)
       .recordStats().build();
 
+  // built once per fresh block and sent to every peer supporting compact blocks
+  private Cache<Sha256Hash, CompactBlockMessage> compactBlockCache = CacheBuilder.newBuilder()
+      .maximumSize(10).expireAfterWrite(60, TimeUnit.SECONDS).build();
+
+  private Cache<BlockId, PartialBlock> partialBlocks = CacheBuilder.newBuilder()
+      .maximumSize(10).expireAfterWrite(60, TimeUnit.SECONDS).build();
+
   private SlidingWindowCounter fetchWaterLine =
       new SlidingWindowCounter(BLOCK_PRODUCED_INTERVAL * MSG_CACHE_DURATION_IN_BLOCKS / 100);
 
@@ -245,6 +258,22 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
 
   private ConcurrentHashMap<Sha256Hash, PriorItem> advObjToFetch = new ConcurrentHashMap<Sha256Hash, PriorItem>();
 
+  /**
+   * items added to advObjToFetch, waiting to enter the heap of the fetch scheduler.
+   */
+  private Queue<PriorItem> advObjToFetchInbox = new ConcurrentLinkedQueue<>();
+
+  /**
+   * outstanding items by priority, only used by consumerAdvObjToFetch.
+   */
+  private PriorityQueue<PriorItem> advObjToFetchHeap = new PriorityQueue<>();
+
+  private AtomicBoolean isFetchScheduled = new AtomicBoolean(false);
+
+  private ScheduledExecutorService fetchAdvObjExecutor = Executors
+      .newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("FetchAdvObj-%d").build());
+
   private ExecutorService broadPool = Executors.newFixedThreadPool(2, new ThreadFactory() {
     @Override
     public Thread newThread(Runnable r) {
@@ -252,7 +281,8 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     }
   });
 
-  private HashMap<Sha256Hash, Long> badAdvObj = new HashMap<>(); //TODO:need auto erase oldest obj
+  private Cache<Sha256Hash, Long> badAdvObj = CacheBuilder.newBuilder()
+      .maximumSize(10_000).expireAfterWrite(1, TimeUnit.HOURS).recordStats().build();
 
   //blocks we requested but not received
 
@@ -264,7 +294,11 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
 
   private Thread handleSyncBlockLoop;
 
-  private Map<BlockMessage, PeerConnection> blockWaitToProc = new ConcurrentHashMap<>();
+  /**
+   * sync blocks received out of order, waiting for the blocks before them.
+   */
+  private Map<BlockId, Pair<BlockMessage, PeerConnection>> blockWaitToProc =
+      new ConcurrentHashMap<>();
 
   private Map<BlockMessage, PeerConnection> blockJustReceived = new ConcurrentHashMap<>();
 
@@ -296,6 +330,10 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
 
   private volatile boolean isFetchSyncActive = false;
 
+  private AtomicBoolean isHandleSyncBlockScheduled = new AtomicBoolean(false);
+
+  private AtomicBoolean isFetchSyncScheduled = new AtomicBoolean(false);
+
   @Override
   public void onMessage(PeerConnection peer, TronMessage msg) {
     switch (msg.getType()) {
@@ -320,6 +358,15 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
       case INVENTORY:
         onHandleInventoryMessage(peer, (InventoryMessage) msg);
         break;
+      case COMPACT_BLOCK:
+        onHandleCompactBlockMessage(peer, (CompactBlockMessage) msg);
+        break;
+      case FETCH_BLOCK_TRXS:
+        onHandleFetchBlockTrxsMessage(peer, (FetchBlockTrxsMessage) msg);
+        break;
+      case BLOCK_TRXS:
+        onHandleBlockTrxsMessage(peer, (BlockTrxsMessage) msg);
+        break;
       default:
         throw new IllegalArgumentException("No such message");
     }
@@ -412,26 +459,15 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
       }
     });
 
-    broadPool.submit(() -> {
-      while (isFetchActive) {
-        consumerAdvObjToFetch();
-      }
-    });
+    // new inventory and replies trigger the fetch scheduler, the poll retries what is left over
+    fetchAdvObjExecutor.scheduleWithFixedDelay(this::startFetchItem, 1, 1, TimeUnit.SECONDS);
 
     //TODO: wait to refactor these threads.
     //handleSyncBlockLoop.start();
 
-    handleSyncBlockExecutor.scheduleWithFixedDelay(() -> {
-      try {
-        if (isHandleSyncBlockActive) {
-          isHandleSyncBlockActive = false;
-          //Thread handleSyncBlockThread = new Thread(() -> handleSyncBlock());
-          handleSyncBlock();
-        }
-      } catch (Throwable t) {
-        logger.error("Unhandled exception", t);
-      }
-    }, 10, 1, TimeUnit.SECONDS);
+    // received sync blocks trigger both loops right away, the polls pick up the other changes
+    handleSyncBlockExecutor.scheduleWithFixedDelay(this::handleSyncBlockIfActive,
+        10, 1, TimeUnit.SECONDS);
 
     //terminate inactive loop
     disconnectInactiveExecutor.scheduleWithFixedDelay(() -> {
@@ -458,20 +494,8 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
       }
     }, 2, NetConstants.MAX_INVENTORY_SIZE_IN_MINUTES / 2, TimeUnit.MINUTES);
 
-    fetchSyncBlocksExecutor.scheduleWithFixedDelay(() -> {
-      try {
-        if (isFetchSyncActive) {
-          if (!isSuspendFetch) {
-            startFetchSyncBlock();
-          } else {
-            logger.debug("suspend");
-          }
-        }
-        isFetchSyncActive = false;
-      } catch (Throwable t) {
-        logger.error("Unhandled exception", t);
-      }
-    }, 10, 1, TimeUnit.SECONDS);
+    fetchSyncBlocksExecutor.scheduleWithFixedDelay(this::fetchSyncBlockIfActive,
+        10, 1, TimeUnit.SECONDS);
 
     //fetchWaterLine:
     fetchWaterLineExecutor.scheduleWithFixedDelay(() -> {
@@ -483,39 +507,61 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     }, 1000, 100, TimeUnit.MILLISECONDS);
   }
 
-  private void consumerAdvObjToFetch() {
-    Collection<PeerConnection> filterActivePeer = getActivePeer().stream()
-        .filter(peer -> !peer.isBusy()).collect(Collectors.toList());
-
-    if (advObjToFetch.isEmpty() || filterActivePeer.isEmpty()) {
-      try {
-        Thread.sleep(100);
-        return;
-      } catch (InterruptedException e) {
-        logger.debug(e.getMessage(), e);
+  /**
+   * Send fetch requests for the outstanding items, blocks first, then by arrival. Every item goes
+   * to the least loaded peer which announced it, is not busy syncing and has less than
+   * MAX_TRX_PER_PEER requests in flight; items no such peer has wait in the heap for the next run.
+   */
+  void consumerAdvObjToFetch() {
+    synchronized (advObjToFetchHeap) {
+      PriorItem added;
+      while ((added = advObjToFetchInbox.poll()) != null) {
+        advObjToFetchHeap.offer(added);
       }
-    }
-    InvToSend sendPackage = new InvToSend();
-    long now = Time.getCurrentMillis();
-    advObjToFetch.values().stream().sorted(PriorItem::compareTo).forEach(idToFetch -> {
-      Sha256Hash hash = idToFetch.getHash();
-      if (idToFetch.getTime() < now - MSG_CACHE_DURATION_IN_BLOCKS * BLOCK_PRODUCED_INTERVAL) {
-        logger.info("This obj is too late to fetch: " + idToFetch);
+
+      List<PeerConnection> available = getActivePeer().stream()
+          .filter(peer -> !peer.isSyncBusy()
+              && peer.getAdvObjWeRequested().size() < MAX_TRX_PER_PEER)
+          .collect(Collectors.toList());
+      InvToSend sendPackage = new InvToSend();
+      List<PriorItem> waiting = new ArrayList<>();
+      long now = Time.getCurrentMillis();
+      PriorItem idToFetch;
+      while (!available.isEmpty() && (idToFetch = advObjToFetchHeap.poll()) != null) {
+        Sha256Hash hash = idToFetch.getHash();
+        if (advObjToFetch.get(hash) != idToFetch) {
+          // fetched, received in a block or replaced in the meantime
+          continue;
+        }
+        if (idToFetch.getTime() < now - MSG_CACHE_DURATION_IN_BLOCKS * BLOCK_PRODUCED_INTERVAL) {
+          logger.info("This obj is too late to fetch: " + idToFetch);
+          advObjToFetch.remove(hash);
+          continue;
+        }
+
+        PeerConnection target = null;
+        for (PeerConnection peer : available) {
+          if (peer.getAdvObjSpreadToUs().containsKey(hash) && (target == null
+              || peer.getAdvObjWeRequested().size() < target.getAdvObjWeRequested().size())) {
+            target = peer;
+          }
+        }
+        if (target == null) {
+          waiting.add(idToFetch);
+          continue;
+        }
+
+        sendPackage.add(idToFetch, target);
+        target.getAdvObjWeRequested().put(idToFetch.getItem(), now);
         advObjToFetch.remove(hash);
-        return;
+        if (target.getAdvObjWeRequested().size() >= MAX_TRX_PER_PEER) {
+          available.remove(target);
+        }
       }
-      filterActivePeer.stream()
-          .filter(peer -> peer.getAdvObjSpreadToUs().containsKey(hash)
-              && sendPackage.getSize(peer) < MAX_TRX_PER_PEER)
-          .sorted(Comparator.comparingInt(peer -> sendPackage.getSize(peer)))
-          .findFirst().ifPresent(peer -> {
-        sendPackage.add(idToFetch, peer);
-        peer.getAdvObjWeRequested().put(idToFetch.getItem(), now);
-        advObjToFetch.remove(hash);
-      });
-    });
+      advObjToFetchHeap.addAll(waiting);
 
-    sendPackage.sendFetch();
+      sendPackage.sendFetch();
+    }
   }
 
   private void consumerAdvObjToSpread() {
@@ -547,6 +593,52 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     sendPackage.sendInv();
   }
 
+  private void activateHandleSyncBlock() {
+    isHandleSyncBlockActive = true;
+    if (isHandleSyncBlockScheduled.compareAndSet(false, true)) {
+      handleSyncBlockExecutor.execute(this::handleSyncBlockIfActive);
+    }
+  }
+
+  private void activateFetchSyncBlock() {
+    isFetchSyncActive = true;
+    if (isFetchSyncScheduled.compareAndSet(false, true)) {
+      fetchSyncBlocksExecutor.execute(this::fetchSyncBlockIfActive);
+    }
+  }
+
+  private void handleSyncBlockIfActive() {
+    isHandleSyncBlockScheduled.set(false);
+    try {
+      if (isHandleSyncBlockActive) {
+        isHandleSyncBlockActive = false;
+        handleSyncBlock();
+      }
+    } catch (Throwable t) {
+      logger.error("Unhandled exception", t);
+    }
+  }
+
+  private void fetchSyncBlockIfActive() {
+    isFetchSyncScheduled.set(false);
+    try {
+      if (isFetchSyncActive) {
+        isFetchSyncActive = false;
+        if (!isSuspendFetch) {
+          startFetchSyncBlock();
+        } else {
+          logger.debug("suspend");
+        }
+      }
+    } catch (Throwable t) {
+      logger.error("Unhandled exception", t);
+    }
+  }
+
+  /**
+   * Process the received sync blocks in chain order: a block is processed once it is the next
+   * block to fetch of a peer, whichever peer it came from.
+   */
   private synchronized void handleSyncBlock() {
     if (((ThreadPoolExecutor) handleBackLogBlocksPool).getActiveCount() > MAX_BLOCKS_IN_PROCESS) {
       logger.info("we're already processing too many blocks");
@@ -555,49 +647,49 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
       isSuspendFetch = false;
     }
 
-    final boolean[] isBlockProc = {true};
-
-    while (isBlockProc[0]) {
-
-      isBlockProc[0] = false;
+    synchronized (blockJustReceived) {
+      blockJustReceived.forEach((msg, peerConnection) ->
+          blockWaitToProc.put(msg.getBlockId(), new Pair<>(msg, peerConnection)));
+      blockJustReceived.clear();
+    }
 
-      synchronized (blockJustReceived) {
-        blockWaitToProc.putAll(blockJustReceived);
-        blockJustReceived.clear();
+    blockWaitToProc.forEach((blockId, received) -> {
+      if (received.getValue().isDisconnect()) {
+        logger.error("Peer {} is disconnect, drop block {}",
+            received.getValue().getNode().getHost(), blockId.getString());
+        blockWaitToProc.remove(blockId);
+        syncBlockIdWeRequested.invalidate(blockId);
+        isFetchSyncActive = true;
       }
+    });
 
-      blockWaitToProc.forEach((msg, peerConnection) -> {
-
-        if (peerConnection.isDisconnect()) {
-          logger.error("Peer {} is disconnect, drop block {}", peerConnection.getNode().getHost(),
-              msg.getBlockId().getString());
-          blockWaitToProc.remove(msg);
-          syncBlockIdWeRequested.invalidate(msg.getBlockId());
-          isFetchSyncActive = true;
-          return;
-        }
+    boolean isBlockProc = true;
+    while (isBlockProc) {
+      isBlockProc = false;
 
+      for (PeerConnection peer : getActivePeer()) {
+        // the chain inventory handler pops the fetch queues under the same lock
         synchronized (freshBlockId) {
-          final boolean[] isFound = {false};
+          BlockId blockId = peer.getSyncBlockToFetch().peek();
+          Pair<BlockMessage, PeerConnection> received =
+              blockId == null ? null : blockWaitToProc.remove(blockId);
+          if (received == null) {
+            continue;
+          }
+
           getActivePeer().stream()
-              .filter(
-                  peer -> !peer.getSyncBlockToFetch().isEmpty() && peer.getSyncBlockToFetch().peek()
-                      .equals(msg.getBlockId()))
-              .forEach(peer -> {
-                peer.getSyncBlockToFetch().pop();
-                peer.getBlockInProc().add(msg.getBlockId());
-                isFound[0] = true;
+              .filter(p -> blockId.equals(p.getSyncBlockToFetch().peek()))
+              .forEach(p -> {
+                p.getSyncBlockToFetch().pop();
+                p.getBlockInProc().add(blockId);
               });
-          if (isFound[0]) {
-            blockWaitToProc.remove(msg);
-            isBlockProc[0] = true;
-            if (freshBlockId.contains(msg.getBlockId()) || processSyncBlock(
-                msg.getBlockCapsule())) {
-              finishProcessSyncBlock(msg.getBlockCapsule());
-            }
+          isBlockProc = true;
+          BlockCapsule block = received.getKey().getBlockCapsule();
+          if (freshBlockId.contains(blockId) || processSyncBlock(block)) {
+            finishProcessSyncBlock(block);
           }
         }
-      });
+      }
 
       if (((ThreadPoolExecutor) handleBackLogBlocksPool).getActiveCount() > MAX_BLOCKS_IN_PROCESS) {
         logger.info("we're already processing too many blocks");
@@ -606,7 +698,6 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
         }
         break;
       }
-
     }
   }
 
@@ -704,25 +795,26 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
             && (peer.isAdvInvFull()
             || isFlooded())) {
           logger.warn("A peer is flooding us, stop handle inv, the peer is: " + peer);
-          return;
+          break;
         }
 
         peer.getAdvObjSpreadToUs().put(id, System.currentTimeMillis());
         if (!requested[0]) {
-          if (!badAdvObj.containsKey(id)) {
-            if (!advObjToFetch.contains(id)) {
+          if (badAdvObj.getIfPresent(id) == null) {
+            PriorItem priorItem = advObjToFetch.get(id);
+            if (priorItem == null) {
               fetchWaterLine.increase();
               logger.info("water line:" + fetchWaterLine.totalCount());
-              this.advObjToFetch.put(id, new PriorItem(new Item(id, msg.getInventoryType()),
-                  fetchSequenceCounter.incrementAndGet()));
+              addAdvObjToFetch(new Item(id, msg.getInventoryType()));
             } else {
               //another peer tell this trx to us, refresh its time.
-              this.advObjToFetch.get(id).refreshTime();
+              priorItem.refreshTime();
             }
           }
         }
       }
     }
+    startFetchItem();
   }
 
   private boolean isFlooded() {
@@ -755,35 +847,131 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
             peer.getNode().getHost());
         return;
       }
-      peer.getSyncBlockRequested().remove(blockId);
+      Long requestTime = peer.getSyncBlockRequested().remove(blockId);
+      if (requestTime != null) {
+        peer.onSyncBlockReceived(requestTime);
+        NetMetrics.requestAnswered(MessageTypes.FETCH_INV_DATA, requestTime);
+      }
       synchronized (blockJustReceived) {
         blockJustReceived.put(blkMsg, peer);
       }
-      isHandleSyncBlockActive = true;
+      activateHandleSyncBlock();
       syncFlag = true;
-      if (!peer.isBusy()) {
-        if (peer.getUnfetchSyncNum() > 0
-            && peer.getSyncBlockToFetch().size() <= NodeConstant.SYNC_FETCH_BATCH_NUM) {
-          syncNextBatchChainIds(peer);
-        } else {
-          isFetchSyncActive = true;
-        }
+      // keep the window of the peer full and ask for the next chain ids before running out
+      if (peer.getSyncChainRequested() == null && peer.getUnfetchSyncNum() > 0
+          && peer.getSyncBlockToFetch().size() <= NodeConstant.SYNC_FETCH_BATCH_NUM) {
+        syncNextBatchChainIds(peer);
       }
+      activateFetchSyncBlock();
     }
 
-    if (advObjWeRequested.containsKey(item)) {
-      advObjWeRequested.remove(item);
+    Long requestTime = advObjWeRequested.remove(item);
+    if (requestTime != null) {
+      NetMetrics.requestAnswered(MessageTypes.FETCH_INV_DATA, requestTime);
       if (!syncFlag) {
         processAdvBlock(peer, blkMsg.getBlockCapsule());
-        startFetchItem();
       }
+      startFetchItem();
+    }
+
+  }
+
+  /**
+   * Rebuild the block from the transactions we already have, fetch the others from the peer.
+   */
+  private void onHandleCompactBlockMessage(PeerConnection peer, CompactBlockMessage msg) {
+    BlockId blockId = msg.getBlockId();
+    if (!peer.getAdvObjWeRequested().containsKey(new Item(blockId, InventoryType.BLOCK))
+        && !peer.getSyncBlockRequested().containsKey(blockId)) {
+      logger.info("Received a compact block {} we did not request from {}", blockId.getString(),
+          peer.getNode().getHost());
+      return;
+    }
+
+    PartialBlock partialBlock = new PartialBlock(peer, msg, id -> {
+      TransactionMessage trxMsg = TrxCache.getIfPresent(id);
+      return trxMsg == null ? null : trxMsg.getTransactionCapsule().getInstance();
+    });
+    if (partialBlock.isComplete()) {
+      onPartialBlockComplete(peer, blockId, partialBlock);
+      return;
+    }
+
+    logger.info("Fetch {} of {} trxs of compact block {} from {}",
+        partialBlock.getMissing().size(), msg.getTransactionIds().size(), blockId.getString(),
+        peer.getNode().getHost());
+    fetchBlockTrxs(peer, blockId, partialBlock);
+  }
+
+  private void fetchBlockTrxs(PeerConnection peer, BlockId blockId, PartialBlock partialBlock) {
+    partialBlocks.put(blockId, partialBlock);
+    peer.sendMessage(new FetchBlockTrxsMessage(blockId, partialBlock.getMissing()));
+  }
+
+  private void onPartialBlockComplete(PeerConnection peer, BlockId blockId,
+      PartialBlock partialBlock) {
+    BlockMessage blockMsg = partialBlock.build();
+    BlockCapsule block = blockMsg.getBlockCapsule();
+    if (partialBlock.isFromCache() && !block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+      // one of our transactions has the same id but not the same signatures as in the block
+      logger.info("Merkle root of compact block {} does not match, fetch all trxs from {}",
+          blockId.getString(), peer.getNode().getHost());
+      partialBlock.missAll();
+      fetchBlockTrxs(peer, blockId, partialBlock);
+      return;
+    }
+    onHandleBlockMessage(peer, blockMsg);
+  }
+
+  private void onHandleFetchBlockTrxsMessage(PeerConnection peer, FetchBlockTrxsMessage msg) {
+    if (!peer.isCompactBlockSent(msg.getBlockId())) {
+      logger.info("Peer {} fetch trxs of block {} we did not send as compact block",
+          peer.getPeerId(), msg.getBlockId().getString());
+      peer.sendMessage(new ItemNotFound());
+      return;
+    }
+    BlockMessage blockMsg = BlockCache.getIfPresent(msg.getBlockId());
+    if (blockMsg == null) {
+      blockMsg = (BlockMessage) del.getData(msg.getBlockId(), MessageTypes.BLOCK);
+    }
+    if (blockMsg == null) {
+      logger.error("fetch trxs of block {} failed.", msg.getBlockId().getString());
+      peer.sendMessage(new ItemNotFound());
+      return;
+    }
+
+    List<TransactionCapsule> blockTrxs = blockMsg.getBlockCapsule().getTransactions();
+    List<Protocol.Transaction> transactions = Lists.newArrayList();
+    for (int index : msg.getIndexes()) {
+      if (index < 0 || index >= blockTrxs.size()) {
+        banTraitorPeer(peer, ReasonCode.BAD_PROTOCOL);
+        return;
+      }
+      transactions.add(blockTrxs.get(index).getInstance());
+    }
+    peer.sendMessage(new BlockTrxsMessage(msg.getBlockId(), transactions));
+  }
+
+  private void onHandleBlockTrxsMessage(PeerConnection peer, BlockTrxsMessage msg) {
+    PartialBlock partialBlock = partialBlocks.getIfPresent(msg.getBlockId());
+    if (partialBlock == null || partialBlock.getPeer() != peer) {
+      logger.info("Received trxs of block {} we did not request from {}",
+          msg.getBlockId().getString(), peer.getNode().getHost());
+      return;
     }
+    partialBlocks.invalidate(msg.getBlockId());
 
+    if (!partialBlock.fill(msg.getTransactionCapsules())) {
+      banTraitorPeer(peer, ReasonCode.BAD_PROTOCOL);
+      return;
+    }
+    onPartialBlockComplete(peer, msg.getBlockId(), partialBlock);
   }
 
   private void processAdvBlock(PeerConnection peer, BlockCapsule block) {
     //TODO: lack the complete flow.
     if (!freshBlockId.contains(block.getBlockId())) {
+      NetMetrics.blockReceived(block.getTimeStamp());
       try {
         LinkedList<Sha256Hash> trxIds = null;
         trxIds = del.handleBlock(block, false);
@@ -880,7 +1068,11 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
       if (!peer.getAdvObjWeRequested().containsKey(item)) {
         throw new TraitorPeerException("We don't send fetch request to" + peer);
       }
-      peer.getAdvObjWeRequested().remove(item);
+      Long requestTime = peer.getAdvObjWeRequested().remove(item);
+      if (requestTime != null) {
+        NetMetrics.requestAnswered(MessageTypes.FETCH_INV_DATA, requestTime);
+      }
+      startFetchItem();
       if (isTrxExist(trxMsg)) {
         logger.info("Trx {} from Peer {} already processed.", trxMsg.getMessageId(),
             peer.getNode().getHost());
@@ -899,10 +1091,9 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
   }
 
   private void onHandleTransactionsMessage(PeerConnection peer, TransactionsMessage msg) {
-    for (Transaction trans : msg.getTransactions().getTransactionsList()) {
-      trxsHandlePool
-          .submit(() -> onHandleTransactionMessage(peer, new TransactionMessage(trans)));
-    }
+    // signatures were checked by the decoder already, one task per message is enough
+    trxsHandlePool.submit(() -> msg.getTransactionCapsules()
+        .forEach(trx -> onHandleTransactionMessage(peer, new TransactionMessage(trx))));
   }
 
   private void onHandleSyncBlockChainMessage(PeerConnection peer, SyncBlockChainMessage syncMsg) {
@@ -961,9 +1152,11 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     for (Sha256Hash hash : fetchInvDataMsg.getHashList()) {
 
       Message msg;
+      boolean fresh = false;
 
       if (type == MessageTypes.BLOCK) {
         msg = BlockCache.getIfPresent(hash);
+        fresh = msg != null;
       } else {
         msg = TrxCache.getIfPresent(hash);
       }
@@ -980,7 +1173,16 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
 
       if (type.equals(MessageTypes.BLOCK)) {
         block = ((BlockMessage) msg).getBlockCapsule();
-        peer.sendMessage(msg);
+        // peers syncing from us or not supporting it get the full block
+        if (fresh && !peer.isNeedSyncFromUs() && peer.getHelloMessage() != null
+            && peer.getHelloMessage().isCompactBlock()) {
+          BlockCapsule compact = block;
+          peer.sendMessage(compactBlockCache.asMap()
+              .computeIfAbsent(hash, h -> new CompactBlockMessage(compact)));
+          peer.onCompactBlockSent(block.getBlockId());
+        } else {
+          peer.sendMessage(msg);
+        }
       } else {
         transactions.add(((TransactionMessage) msg).getTransactionCapsule().getInstance());
         size += ((TransactionMessage) msg).getTransactionCapsule().getInstance().getSerializedSize();
@@ -1158,8 +1360,28 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     }
   }
 
+  /**
+   * wake the fetch scheduler up, called when items to fetch arrive or a peer has room for more
+   * requests.
+   */
   private void startFetchItem() {
+    if (isFetchActive && isFetchScheduled.compareAndSet(false, true)) {
+      fetchAdvObjExecutor.submit(() -> {
+        isFetchScheduled.set(false);
+        try {
+          consumerAdvObjToFetch();
+        } catch (Throwable t) {
+          logger.error("Unhandled exception", t);
+        }
+      });
+    }
+  }
 
+  void addAdvObjToFetch(Item item) {
+    PriorItem priorItem = new PriorItem(item, fetchSequenceCounter.incrementAndGet());
+    if (advObjToFetch.putIfAbsent(item.getHash(), priorItem) == null) {
+      advObjToFetchInbox.offer(priorItem);
+    }
   }
 
   private long getUnSyncNum() {
@@ -1172,28 +1394,32 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
         .getAsLong();
   }
 
+  /**
+   * Request sync blocks from all peers at once, each up to its window, and in total no more than
+   * MAX_BLOCKS_ALREADY_FETCHED blocks requested or waiting to be processed.
+   */
   private synchronized void startFetchSyncBlock() {
-    //TODO: check how many block is processing and decide if fetch more
     HashMap<PeerConnection, List<BlockId>> send = new HashMap<>();
     HashSet<BlockId> request = new HashSet<>();
+    long[] budget = {MAX_BLOCKS_ALREADY_FETCHED - blockWaitToProc.size()
+        - blockJustReceived.size()
+        - getActivePeer().stream().mapToLong(peer -> peer.getSyncBlockRequested().size()).sum()};
 
     getActivePeer().stream()
-        .filter(peer -> peer.isNeedSyncFromPeer() && !peer.isBusy())
+        .filter(peer -> peer.isNeedSyncFromPeer()
+            && peer.getSyncBlockRequested().size() < peer.getSyncWindow())
         .forEach(peer -> {
-          if (!send.containsKey(peer)) { //TODO: Attention multi thread here
-            send.put(peer, new LinkedList<>());
-          }
-          for (BlockId blockId :
-              peer.getSyncBlockToFetch()) {
-            if (!request.contains(blockId) //TODO: clean processing block
+          List<BlockId> blockIds = send.computeIfAbsent(peer, p -> new LinkedList<>());
+          int free = peer.getSyncWindow() - peer.getSyncBlockRequested().size();
+          for (BlockId blockId : peer.getSyncBlockToFetch()) {
+            if (blockIds.size() >= free || budget[0] <= 0) {
+              break;
+            }
+            if (!request.contains(blockId)
                 && (syncBlockIdWeRequested.getIfPresent(blockId) == null)) {
-              send.get(peer).add(blockId);
+              blockIds.add(blockId);
               request.add(blockId);
-              //TODO: check max block num to fetch from one peer.
-              if (send.get(peer).size()
-                  > MAX_BLOCKS_SYNC_FROM_ONE_PEER) { //Max Blocks peer get one time
-                break;
-              }
+              budget[0]--;
             }
           }
         });
@@ -1289,10 +1515,10 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
                 .filter(peerConnection -> peerConnection.getInvToUs().contains(item.getHash()))
                 .findFirst()
                 .isPresent()) {
-              advObjToFetch.put(item.getHash(), new PriorItem(item,
-                  fetchSequenceCounter.incrementAndGet()));
+              addAdvObjToFetch(item);
             }
           });
+      startFetchItem();
     }
   }
 
@@ -1302,6 +1528,7 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     disconnectInactiveExecutor.shutdown();
     cleanInventoryExecutor.shutdown();
     broadPool.shutdown();
+    fetchAdvObjExecutor.shutdown();
     loopSyncBlockChain.shutdown();
     loopFetchBlocks.shutdown();
     loopAdvertiseInv.shutdown();
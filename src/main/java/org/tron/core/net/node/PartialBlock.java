@@ -0,0 +1,106 @@
+package org.tron.core.net.node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.core.net.peer.PeerConnection;
+import org.tron.protos.Protocol.Transaction;
+
+/**
+ * A block received as compact block, rebuilt from the transactions we know and the ones fetched
+ * from the peer which sent it.
+ */
+class PartialBlock {
+
+  private final PeerConnection peer;
+  private final CompactBlockMessage compactBlock;
+  private final List<Sha256Hash> trxIds;
+  private final TransactionCapsule[] trxs;
+  private final List<Integer> missing = new ArrayList<>();
+  private boolean fromCache;
+
+  PartialBlock(PeerConnection peer, CompactBlockMessage compactBlock,
+      Function<Sha256Hash, Transaction> knownTrxs) {
+    this.peer = peer;
+    this.compactBlock = compactBlock;
+    this.trxIds = compactBlock.getTransactionIds();
+    this.trxs = new TransactionCapsule[trxIds.size()];
+    for (int i = 0; i < trxs.length; i++) {
+      Transaction trx = knownTrxs.apply(trxIds.get(i));
+      if (Objects.isNull(trx)) {
+        missing.add(i);
+      } else {
+        trxs[i] = new TransactionCapsule(trx);
+      }
+    }
+    fromCache = missing.size() < trxs.length;
+  }
+
+  PeerConnection getPeer() {
+    return peer;
+  }
+
+  /**
+   * indexes of the transactions to fetch, in block order.
+   */
+  List<Integer> getMissing() {
+    return missing;
+  }
+
+  boolean isComplete() {
+    return missing.isEmpty();
+  }
+
+  /**
+   * whether some transactions come from our own cache rather than from the peer.
+   */
+  boolean isFromCache() {
+    return fromCache;
+  }
+
+  /**
+   * forget the transactions taken from our cache, they have to be fetched from the peer.
+   */
+  void missAll() {
+    missing.clear();
+    for (int i = 0; i < trxs.length; i++) {
+      trxs[i] = null;
+      missing.add(i);
+    }
+    fromCache = false;
+  }
+
+  /**
+   * fill the missing transactions, in the order of {@link #getMissing()}. The capsules are kept
+   * in the block, with their hashes.
+   *
+   * @return false if they are not the transactions of the block
+   */
+  boolean fill(List<TransactionCapsule> fetched) {
+    if (fetched.size() != missing.size()) {
+      return false;
+    }
+    for (int i = 0; i < fetched.size(); i++) {
+      int index = missing.get(i);
+      TransactionCapsule trx = fetched.get(i);
+      if (!trx.getTransactionId().equals(trxIds.get(index))) {
+        return false;
+      }
+      trxs[index] = trx;
+    }
+    missing.clear();
+    return true;
+  }
+
+  BlockMessage build() {
+    return new BlockMessage(
+        new BlockCapsule(compactBlock.getBlockHeader(), Arrays.asList(trxs)));
+  }
+}
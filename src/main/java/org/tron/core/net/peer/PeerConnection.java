@@ -1,19 +1,24 @@
 package org.tron.core.net.peer;
 
 import static org.tron.core.config.Parameter.NetConstants.MAX_INVENTORY_SIZE_IN_MINUTES;
+import static org.tron.core.config.Parameter.NetConstants.MAX_INV_SIZE_PER_PEER;
 import static org.tron.core.config.Parameter.NetConstants.NET_MAX_TRX_PER_SECOND;
+import static org.tron.core.config.Parameter.NetConstants.SYNC_TIME_OUT;
+import static org.tron.core.config.Parameter.NodeConstant.MAX_BLOCKS_SYNC_FROM_ONE_PEER;
+import static org.tron.core.config.Parameter.NodeConstant.SYNC_WINDOW_INIT;
+import static org.tron.core.config.Parameter.NodeConstant.SYNC_WINDOW_MIN;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import javafx.util.Pair;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Scope;
@@ -40,29 +45,45 @@ public class PeerConnection extends Channel {
 
   private Queue<Sha256Hash> invWeAdv = new LinkedBlockingQueue<>();
 
-  private Map<Sha256Hash, Long> advObjSpreadToUs = new ConcurrentHashMap<>();
+  /**
+   * inventories the peer sent us and the ones we sent it, forgotten after
+   * MAX_INVENTORY_SIZE_IN_MINUTES and capped so that a flooding peer cannot grow them.
+   */
+  private Cache<Sha256Hash, Long> advObjSpreadToUs = newInventoryCache();
 
-  private Map<Sha256Hash, Long> advObjWeSpread = new ConcurrentHashMap<>();
+  private Cache<Sha256Hash, Long> advObjWeSpread = newInventoryCache();
 
   private Map<Item, Long> advObjWeRequested = new ConcurrentHashMap<>();
 
+  /**
+   * blocks we sent to the peer as compact blocks, the only ones it may fetch trxs of.
+   */
+  private Cache<BlockId, Long> compactBlockSent = CacheBuilder.newBuilder()
+      .maximumSize(10).expireAfterWrite(60, TimeUnit.SECONDS).build();
+
   private boolean advInhibit = false;
 
   public Map<Sha256Hash, Long> getAdvObjSpreadToUs() {
-    return advObjSpreadToUs;
+    return advObjSpreadToUs.asMap();
   }
 
-  public void setAdvObjSpreadToUs(
-      HashMap<Sha256Hash, Long> advObjSpreadToUs) {
-    this.advObjSpreadToUs = advObjSpreadToUs;
+  public Map<Sha256Hash, Long> getAdvObjWeSpread() {
+    return advObjWeSpread.asMap();
   }
 
-  public Map<Sha256Hash, Long> getAdvObjWeSpread() {
-    return advObjWeSpread;
+  public void onCompactBlockSent(BlockId blockId) {
+    compactBlockSent.put(blockId, Time.getCurrentMillis());
   }
 
-  public void setAdvObjWeSpread(HashMap<Sha256Hash, Long> advObjWeSpread) {
-    this.advObjWeSpread = advObjWeSpread;
+  public boolean isCompactBlockSent(BlockId blockId) {
+    return compactBlockSent.getIfPresent(blockId) != null;
+  }
+
+  private static Cache<Sha256Hash, Long> newInventoryCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(MAX_INV_SIZE_PER_PEER)
+        .expireAfterWrite(MAX_INVENTORY_SIZE_IN_MINUTES, TimeUnit.MINUTES)
+        .build();
   }
 
   public boolean isAdvInhibit() {
@@ -84,6 +105,27 @@ public class PeerConnection extends Channel {
 
   private Pair<Deque<BlockId>, Long> syncChainRequested = null;
 
+  /**
+   * sync blocks we may have requested from the peer at the same time.
+   */
+  private volatile int syncWindow = SYNC_WINDOW_INIT;
+
+  public int getSyncWindow() {
+    return syncWindow;
+  }
+
+  /**
+   * Grow the window while the peer answers well within the sync timeout, halve it when it gets
+   * close, so that the window follows what the peer can deliver in that time.
+   */
+  public void onSyncBlockReceived(long requestTime) {
+    if (Time.getCurrentMillis() - requestTime < SYNC_TIME_OUT / 2) {
+      syncWindow = (int) Math.min(syncWindow + 1, MAX_BLOCKS_SYNC_FROM_ONE_PEER);
+    } else {
+      syncWindow = Math.max(syncWindow / 2, SYNC_WINDOW_MIN);
+    }
+  }
+
   public Pair<Deque<BlockId>, Long> getSyncChainRequested() {
     return syncChainRequested;
   }
@@ -143,28 +185,13 @@ public class PeerConnection extends Channel {
     return this.helloMessage;
   }
 
+  /**
+   * Expired inventories are dropped as the caches are used, this only settles the sizes of idle
+   * peers.
+   */
   public void cleanInvGarbage() {
-    long oldestTimestamp =
-        Time.getCurrentMillis() - MAX_INVENTORY_SIZE_IN_MINUTES * 60 * 1000;
-
-    Iterator<Entry<Sha256Hash, Long>> iterator = this.advObjSpreadToUs.entrySet().iterator();
-
-    removeIterator(iterator, oldestTimestamp);
-
-    iterator = this.advObjWeSpread.entrySet().iterator();
-
-    removeIterator(iterator, oldestTimestamp);
-  }
-
-  private void removeIterator(Iterator<Entry<Sha256Hash, Long>> iterator, long oldestTimestamp) {
-    while (iterator.hasNext()) {
-      Map.Entry entry = iterator.next();
-      Long ts = (Long) entry.getValue();
-
-      if (ts < oldestTimestamp) {
-        iterator.remove();
-      }
-    }
+    advObjSpreadToUs.cleanUp();
+    advObjWeSpread.cleanUp();
   }
 
   public boolean isAdvInvFull() {
@@ -273,9 +300,14 @@ public class PeerConnection extends Channel {
   }
 
   public boolean idle() {
-    return advObjWeRequested.isEmpty()
-        && syncBlockRequested.isEmpty()
-        && syncChainRequested == null;
+    return advObjWeRequested.isEmpty() && !isSyncBusy();
+  }
+
+  /**
+   * whether a sync chain or sync block request to this peer is in flight.
+   */
+  public boolean isSyncBusy() {
+    return !syncBlockRequested.isEmpty() || syncChainRequested != null;
   }
 
   public void sendMessage(Message message) {
@@ -1,11 +1,15 @@
 package org.tron.core.services;
 
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.google.protobuf.ByteString;
 import io.grpc.Server;
 import io.grpc.netty.NettyServerBuilder;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,17 +31,23 @@ import org.tron.api.GrpcAPI.BlockList;
 import org.tron.api.GrpcAPI.BlockReference;
 import org.tron.api.GrpcAPI.BytesMessage;
 import org.tron.api.GrpcAPI.EmptyMessage;
+import org.tron.api.GrpcAPI.NetMetricsMessage;
 import org.tron.api.GrpcAPI.Node;
 import org.tron.api.GrpcAPI.NodeList;
 import org.tron.api.GrpcAPI.NumberMessage;
 import org.tron.api.GrpcAPI.TransactionList;
 import org.tron.api.GrpcAPI.WitnessList;
+import org.tron.api.NetworkGrpc.NetworkImplBase;
 import org.tron.api.WalletExtensionGrpc;
 import org.tron.api.WalletGrpc.WalletImplBase;
 import org.tron.api.WalletSolidityGrpc.WalletSolidityImplBase;
 import org.tron.common.application.Service;
 import org.tron.common.overlay.discover.node.NodeHandler;
 import org.tron.common.overlay.discover.node.NodeManager;
+import org.tron.common.overlay.discover.node.NodeStatistics;
+import org.tron.common.overlay.server.Channel;
+import org.tron.common.overlay.server.ChannelManager;
+import org.tron.common.overlay.server.NetMetrics;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.StringUtil;
 import org.tron.core.Constant;
@@ -76,12 +86,15 @@ public class RpcApiService implements Service {
 
   private int port = Args.getInstance().getRpcPort();
   private Server apiServer;
+  private Server metricsServer;
 
   @Autowired
   private Manager dbManager;
   @Autowired
   private NodeManager nodeManager;
   @Autowired
+  private ChannelManager channelManager;
+  @Autowired
   private WalletSolidity walletSolidity;
   @Autowired
   private Wallet wallet;
@@ -137,6 +150,8 @@ public class RpcApiService implements Service {
 
     logger.info("RpcApiService started, listening on " + port);
 
+    startMetricsServer();
+
     Runtime.getRuntime().addShutdownHook(new Thread(() -> {
       System.err.println("*** shutting down gRPC server since JVM is shutting down");
       //server.this.stop();
@@ -731,11 +746,88 @@ public class RpcApiService implements Service {
     }
   }
 
+  /**
+   * NetworkApi.
+   */
+  private class NetworkApi extends NetworkImplBase {
+
+    @Override
+    public void getNetMetrics(EmptyMessage request,
+        StreamObserver<NetMetricsMessage> responseObserver) {
+      NetMetricsMessage.Builder builder = NetMetricsMessage.newBuilder();
+      NetMetrics.getRegistry().getMeters().forEach((name, meter) ->
+          builder.addRates(NetMetricsMessage.Rate.newBuilder()
+              .setName(name)
+              .setCount(meter.getCount())
+              .setOneMinuteRate(meter.getOneMinuteRate())));
+      NetMetrics.getRegistry().getTimers().forEach((name, timer) ->
+          builder.addLatencies(toLatency(name, timer)));
+
+      for (Channel channel : channelManager.getActivePeers()) {
+        NodeStatistics statistics = channel.getNodeStatistics();
+        if (channel.getNode() == null || statistics == null) {
+          continue;
+        }
+        builder.addPeers(NetMetricsMessage.PeerRate.newBuilder()
+            .setAddress(Address.newBuilder()
+                .setHost(ByteString.copyFrom(ByteArray.fromString(channel.getNode().getHost())))
+                .setPort(channel.getNode().getPort()))
+            .setInBytes(statistics.tronInBytes.getCount())
+            .setOutBytes(statistics.tronOutBytes.getCount())
+            .setInBytesRate(statistics.tronInBytes.getOneMinuteRate())
+            .setOutBytesRate(statistics.tronOutBytes.getOneMinuteRate()));
+      }
+
+      responseObserver.onNext(builder.build());
+      responseObserver.onCompleted();
+    }
+
+    private NetMetricsMessage.Latency toLatency(String name, Timer timer) {
+      Snapshot snapshot = timer.getSnapshot();
+      return NetMetricsMessage.Latency.newBuilder()
+          .setName(name)
+          .setCount(timer.getCount())
+          .setMean(toMillis(snapshot.getMean()))
+          .setMedian(toMillis(snapshot.getMedian()))
+          .setP99(toMillis(snapshot.get99thPercentile()))
+          .setMax(toMillis(snapshot.getMax()))
+          .build();
+    }
+
+    private double toMillis(double nanos) {
+      return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+
   @Override
   public void stop() {
     if (apiServer != null) {
       apiServer.shutdown();
     }
+    if (metricsServer != null) {
+      metricsServer.shutdown();
+    }
+  }
+
+  /**
+   * The network metrics list the address of every peer, so they are only served on the loopback
+   * interface, and only when node.rpc.metricsPort is set.
+   */
+  private void startMetricsServer() {
+    int metricsPort = Args.getInstance().getMetricsRpcPort();
+    if (metricsPort <= 0) {
+      return;
+    }
+    try {
+      metricsServer = NettyServerBuilder
+          .forAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), metricsPort))
+          .addService(new NetworkApi())
+          .build()
+          .start();
+      logger.info("network metrics listening on localhost:" + metricsPort);
+    } catch (IOException e) {
+      logger.error("can not start the network metrics server: " + e.getMessage(), e);
+    }
   }
 
   /**
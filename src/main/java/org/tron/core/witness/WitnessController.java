@@ -1,13 +1,11 @@
 package org.tron.core.witness;
 
-import com.google.common.collect.Maps;
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
@@ -18,10 +16,10 @@ import org.tron.common.utils.StringUtil;
 import org.tron.common.utils.Time;
 import org.tron.core.capsule.AccountCapsule;
 import org.tron.core.capsule.BlockCapsule;
-import org.tron.core.capsule.VotesCapsule;
 import org.tron.core.capsule.WitnessCapsule;
 import org.tron.core.config.Parameter.ChainConstant;
 import org.tron.core.db.AccountStore;
+import org.tron.core.db.DynamicPropertiesStore.HeadProperties;
 import org.tron.core.db.Manager;
 import org.tron.core.db.VotesStore;
 import org.tron.core.db.WitnessStore;
@@ -65,8 +63,15 @@ public class WitnessController {
     return this.manager.getWitnessStore().get(address.toByteArray());
   }
 
+  /**
+   * the active witnesses, read only.
+   */
   public List<ByteString> getActiveWitnesses() {
-    return this.manager.getWitnessScheduleStore().getActiveWitnesses();
+    return getActiveWitnessSchedule().getWitnesses();
+  }
+
+  public WitnessSchedule getActiveWitnessSchedule() {
+    return this.manager.getWitnessScheduleStore().getActiveWitnessSchedule();
   }
 
   public void setActiveWitnesses(List<ByteString> addresses) {
@@ -74,7 +79,7 @@ public class WitnessController {
   }
 
   public void addWitness(ByteString address) {
-    List<ByteString> l = getActiveWitnesses();
+    List<ByteString> l = new ArrayList<>(getActiveWitnesses());
     l.add(address);
     setActiveWitnesses(l);
   }
@@ -128,7 +133,8 @@ public class WitnessController {
     }
     long interval = ChainConstant.BLOCK_PRODUCED_INTERVAL;
 
-    if (manager.getDynamicPropertiesStore().getLatestBlockHeaderNumber() == 0) {
+    HeadProperties head = manager.getDynamicPropertiesStore().getHeadProperties();
+    if (head.getNumber() == 0) {
       return getGenesisBlock().getTimeStamp() + slotNum * interval;
     }
 
@@ -136,7 +142,7 @@ public class WitnessController {
       slotNum += manager.getSkipSlotInMaintenance();
     }
 
-    long headSlotTime = manager.getDynamicPropertiesStore().getLatestBlockHeaderTimestamp();
+    long headSlotTime = head.getTimestamp();
     headSlotTime = headSlotTime
         - ((headSlotTime - getGenesisBlock().getTimeStamp()) % interval);
 
@@ -171,13 +177,7 @@ public class WitnessController {
   }
 
   public boolean activeWitnessesContain(final Set<ByteString> localWitnesses) {
-    List<ByteString> activeWitnesses = this.getActiveWitnesses();
-    for (ByteString witnessAddress : localWitnesses) {
-      if (activeWitnesses.contains(witnessAddress)) {
-        return true;
-      }
-    }
-    return false;
+    return getActiveWitnessSchedule().containsAny(localWitnesses);
   }
 
   /**
@@ -191,7 +191,8 @@ public class WitnessController {
       throw new RuntimeException("currentSlot should be positive.");
     }
 
-    int numberActiveWitness = this.getActiveWitnesses().size();
+    WitnessSchedule schedule = getActiveWitnessSchedule();
+    int numberActiveWitness = schedule.size();
     int singleRepeat = this.manager.getDynamicPropertiesStore().getSingleRepeat();
     if (numberActiveWitness <= 0) {
       throw new RuntimeException("Active Witnesses is null.");
@@ -202,7 +203,7 @@ public class WitnessController {
         + ", witnessIndex" + witnessIndex
         + ", currentActiveWitnesses size:" + numberActiveWitness);
 
-    final ByteString scheduledWitness = this.getActiveWitnesses().get(witnessIndex);
+    final ByteString scheduledWitness = schedule.get(witnessIndex);
     logger.info("scheduledWitness:" + ByteArray.toHexString(scheduledWitness.toByteArray())
         + ", currentSlot:" + currentSlot);
 
@@ -239,60 +240,19 @@ public class WitnessController {
 //    }
   }
 
+  /**
+   * the vote change of each witness in this period, from the tally the votes store keeps as
+   * votes are cast, then start the next period.
+   *
+   * <p>The tron power of the voters is not checked again here. VoteWitnessActuator rejects new
+   * votes above the tron power of the voter, and the tron power only shrinks by an unfreeze,
+   * which clears the new votes of the voter: the check done here before could not fail.
+   */
   private Map<ByteString, Long> countVote(VotesStore votesStore) {
-    final Map<ByteString, Long> countWitness = Maps.newHashMap();
-    org.tron.core.db.common.iterator.DBIterator dbIterator = votesStore.getIterator();
-    AccountStore accountStore = this.manager.getAccountStore();
-
-    long sizeCount = 0;
-    while (dbIterator.hasNext()) {
-      VotesCapsule votes = new VotesCapsule(dbIterator.next().getValue());
-
-//      logger.info("there is account ,account address is {}",
-//          account.createReadableString());
-
-      Optional<Long> sum = votes.getNewVotes().stream().map(vote -> vote.getVoteCount())
-          .reduce((a, b) -> a + b);
-      if (sum.isPresent()) {
-        AccountCapsule account = accountStore.get(votes.createDbKey());
-        if (sum.get() <= account.getTronPower()) {
-          // TODO add vote reward
-          // long reward = Math.round(sum.get() * this.manager.getDynamicPropertiesStore()
-          //    .getVoteRewardRate());
-          //account.setBalance(account.getBalance() + reward);
-          //accountStore.put(account.createDbKey(), account);
-          votes.getOldVotes().forEach(vote -> {
-            //TODO validate witness //active_witness
-            ByteString voteAddress = vote.getVoteAddress();
-            long voteCount = vote.getVoteCount();
-            if (countWitness.containsKey(voteAddress)) {
-              countWitness.put(voteAddress, countWitness.get(voteAddress) - voteCount);
-            } else {
-              countWitness.put(voteAddress, -voteCount);
-            }
-          });
-          votes.getNewVotes().forEach(vote -> {
-            //TODO validate witness //active_witness
-            ByteString voteAddress = vote.getVoteAddress();
-            long voteCount = vote.getVoteCount();
-            if (countWitness.containsKey(voteAddress)) {
-              countWitness.put(voteAddress, countWitness.get(voteAddress) + voteCount);
-            } else {
-              countWitness.put(voteAddress, voteCount);
-            }
-          });
-        } else {
-          logger.info(
-              "account" + account.createReadableString() + ",tronPower[" + account.getTronPower()
-                  + "] < voteSum["
-                  + sum.get() + "]");
-        }
-      }
-      sizeCount++;
-    }
-    logger.info("there is {} new votes in this epoch", sizeCount);
+    Map<ByteString, Long> countWitness = votesStore.countVotes();
+    logger.info("{} witnesses have new votes in this epoch", countWitness.size());
 
-    votesStore.reset();
+    votesStore.newPeriod();
     return countWitness;
   }
 
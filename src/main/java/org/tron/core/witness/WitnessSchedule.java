@@ -0,0 +1,48 @@
+package org.tron.core.witness;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.ByteString;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable list of the active witnesses in schedule order. Built once per change of the active
+ * witnesses instead of being decoded from the store on every read.
+ */
+public class WitnessSchedule {
+
+  private final List<ByteString> witnesses;
+
+  private final Set<ByteString> members;
+
+  public WitnessSchedule(List<ByteString> witnesses) {
+    this.witnesses = ImmutableList.copyOf(witnesses);
+    this.members = ImmutableSet.copyOf(witnesses);
+  }
+
+  /**
+   * the active witnesses, read only.
+   */
+  public List<ByteString> getWitnesses() {
+    return witnesses;
+  }
+
+  public int size() {
+    return witnesses.size();
+  }
+
+  public ByteString get(int index) {
+    return witnesses.get(index);
+  }
+
+  public boolean containsAny(Collection<ByteString> candidates) {
+    for (ByteString witness : candidates) {
+      if (members.contains(witness)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
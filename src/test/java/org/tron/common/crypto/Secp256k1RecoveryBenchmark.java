@@ -0,0 +1,53 @@
+package org.tron.common.crypto;
+
+import java.security.SignatureException;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.crypto.ECKey.ECDSASignature;
+
+/**
+ * Throughput of the legacy and the dedicated key recovery, run by hand:
+ * java -cp ... org.tron.common.crypto.Secp256k1RecoveryBenchmark [signatures] [rounds]
+ */
+@Slf4j
+public class Secp256k1RecoveryBenchmark {
+
+  private interface Recovery {
+
+    byte[] recover(int i) throws SignatureException;
+  }
+
+  public static void main(String[] args) throws SignatureException {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+    Random random = new Random(1);
+    byte[][] hashes = new byte[count][32];
+    ECDSASignature[] signatures = new ECDSASignature[count];
+    byte[][] signatureBytes = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      random.nextBytes(hashes[i]);
+      signatures[i] = new ECKey().sign(hashes[i]);
+      signatureBytes[i] = signatures[i].toByteArray();
+    }
+
+    for (int round = 0; round < rounds; round++) {
+      run("legacy", count, i -> ECKey.recoverPubBytesFromSignature(signatures[i].v - 27,
+          signatures[i], hashes[i]));
+      run("base64", count, i -> ECKey.signatureToKeyBytes(hashes[i], signatures[i].toBase64()));
+      run("bytes", count, i -> ECKey.signatureToKeyBytes(hashes[i], signatureBytes[i]));
+    }
+  }
+
+  private static void run(String name, int count, Recovery recovery)
+      throws SignatureException {
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      if (recovery.recover(i) == null) {
+        throw new IllegalStateException("no key for signature " + i);
+      }
+    }
+    long micros = (System.nanoTime() - start) / 1000;
+    logger.info("{}: {} recoveries/s", name, count * 1_000_000L / Math.max(micros, 1));
+  }
+}
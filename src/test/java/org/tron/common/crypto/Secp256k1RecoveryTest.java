@@ -0,0 +1,92 @@
+package org.tron.common.crypto;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.security.SignatureException;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.crypto.ECKey.ECDSASignature;
+
+/**
+ * Checks the recovery of Secp256k1Recovery against ECKey.recoverPubBytesFromSignature.
+ */
+public class Secp256k1RecoveryTest {
+
+  private static final BigInteger N = ECKey.CURVE.getN();
+
+  private final Random random = new Random(42);
+
+  private static byte[] legacyRecover(int recId, BigInteger r, BigInteger s, byte[] hash) {
+    try {
+      return ECKey.recoverPubBytesFromSignature(recId, new ECDSASignature(r, s), hash);
+    } catch (RuntimeException e) {
+      // r is not the x of a point, or has no inverse
+      return null;
+    }
+  }
+
+  private static void assertSameRecovery(BigInteger r, BigInteger s, byte[] hash) {
+    for (int recId = 0; recId < 4; recId++) {
+      Assert.assertArrayEquals(legacyRecover(recId, r, s, hash),
+          Secp256k1Recovery.recoverPubBytes(recId, r, s, hash));
+    }
+  }
+
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void testSignatures() throws SignatureException {
+    SecureRandom secureRandom = new SecureRandom();
+    for (int i = 0; i < 50; i++) {
+      ECKey key = new ECKey(secureRandom);
+      byte[] hash = randomBytes(32);
+      ECDSASignature sig = key.sign(hash);
+
+      assertSameRecovery(sig.r, sig.s, hash);
+      assertSameRecovery(sig.r, N.subtract(sig.s), hash);
+      Assert.assertArrayEquals(key.getPubKey(), ECKey.signatureToKeyBytes(hash, sig));
+      Assert.assertArrayEquals(key.getAddress(),
+          ECKey.signatureToAddress(hash, sig.toByteArray()));
+      Assert.assertArrayEquals(key.getAddress(), ECKey.signatureToAddress(hash, sig.toBase64()));
+    }
+  }
+
+  @Test
+  public void testRandomComponents() {
+    for (int i = 0; i < 50; i++) {
+      assertSameRecovery(new BigInteger(1, randomBytes(32)), new BigInteger(1, randomBytes(32)),
+          randomBytes(32));
+    }
+    byte[] hash = randomBytes(32);
+    assertSameRecovery(BigInteger.ONE, BigInteger.ONE, hash);
+    assertSameRecovery(N, BigInteger.ONE, hash);
+    assertSameRecovery(N.subtract(BigInteger.ONE), BigInteger.ZERO, hash);
+    assertSameRecovery(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE), BigInteger.ONE,
+        hash);
+  }
+
+  @Test
+  public void testBadSignatureBytes() {
+    ECKey key = new ECKey();
+    byte[] hash = randomBytes(32);
+    byte[] signature = key.sign(hash).toByteArray();
+    try {
+      ECKey.signatureToAddress(hash, new byte[64]);
+      Assert.fail();
+    } catch (SignatureException e) {
+      Assert.assertTrue(e.getMessage().contains("truncated"));
+    }
+    signature[64] = 9;
+    try {
+      ECKey.signatureToAddress(hash, signature);
+      Assert.fail();
+    } catch (SignatureException e) {
+      Assert.assertTrue(e.getMessage().contains("Header byte out of range"));
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package org.tron.common.overlay.message;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.tron.common.overlay.discover.node.Node;
+import org.tron.common.overlay.discover.node.NodeStatistics;
+import org.tron.common.overlay.server.Channel;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.raw;
+
+public class MessageCodecTest {
+
+  @Test
+  public void keepOrderAcrossWorkers() throws InterruptedException {
+    Channel channel = Mockito.mock(Channel.class);
+    Mockito.when(channel.getNodeStatistics())
+        .thenReturn(new NodeStatistics(new Node(new byte[64], "127.0.0.1", 18888)));
+    MessageCodec codec = new MessageCodec();
+    codec.setChannel(channel);
+    EmbeddedChannel embedded = new EmbeddedChannel(codec);
+
+    TransactionMessage trx = new TransactionMessage(Transaction.newBuilder()
+        .setRawData(raw.newBuilder().setExpiration(1000L)).build());
+    embedded.writeInbound(trx.getSendData());
+    embedded.writeInbound(new PongMessage().getSendData());
+
+    Object first = null;
+    Object second = null;
+    for (int i = 0; i < 100 && second == null; i++) {
+      Thread.sleep(10);
+      embedded.runPendingTasks();
+      if (first == null) {
+        first = embedded.readInbound();
+      }
+      if (first != null) {
+        second = embedded.readInbound();
+      }
+    }
+
+    Assert.assertEquals(trx, first);
+    Assert.assertTrue(second instanceof PongMessage);
+  }
+}
@@ -0,0 +1,32 @@
+package org.tron.common.overlay.message;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.core.net.message.TronMessageFactory;
+import org.tron.protos.Protocol.Transaction;
+
+public class MessageTest {
+
+  @Test
+  public void sendDataIsSharedAndDecodable() throws Exception {
+    TransactionMessage message = new TransactionMessage(Transaction.getDefaultInstance()
+        .toBuilder().setRawData(Transaction.raw.newBuilder().setExpiration(1000L)).build());
+
+    ByteBuf first = message.getSendData();
+    ByteBuf second = message.getSendData();
+    Assert.assertEquals(message.getData().length + 1, first.readableBytes());
+
+    byte type = first.readByte();
+    Assert.assertEquals(MessageTypes.TRX.asByte(), type);
+    Assert.assertEquals(message.getData().length + 1, second.readableBytes());
+
+    byte[] rawData = new byte[first.readableBytes()];
+    first.readBytes(rawData);
+    first.release();
+    Assert.assertEquals(message, new TronMessageFactory().create(type, rawData));
+    Assert.assertEquals(message.getData().length + 1, message.getSendData().readableBytes());
+  }
+}
@@ -0,0 +1,107 @@
+package org.tron.common.overlay.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.net.message.MessageTypes;
+
+public class CompressionHandlerTest {
+
+  private static ByteBuf frame(MessageTypes type, int size) {
+    byte[] data = new byte[size + 1];
+    data[0] = type.asByte();
+    for (int i = 1; i < data.length; i++) {
+      data[i] = (byte) (i % 7);
+    }
+    return Unpooled.wrappedBuffer(data);
+  }
+
+  private static EmbeddedChannel newChannel(boolean enabled) {
+    CompressionHandler handler = new CompressionHandler();
+    handler.setEnabled(enabled);
+    return new EmbeddedChannel(handler);
+  }
+
+  @Test
+  public void compressLargeFramesOnly() {
+    EmbeddedChannel sender = newChannel(true);
+    EmbeddedChannel receiver = newChannel(false);
+
+    ByteBuf block = frame(MessageTypes.BLOCKS, 64 * 1024);
+    byte[] expected = ByteBufUtil.getBytes(block);
+    sender.writeOutbound(block);
+    ByteBuf compressed = sender.readOutbound();
+    Assert.assertTrue(compressed.readableBytes() < expected.length / 2);
+    Assert.assertEquals(MessageTypes.BLOCKS.asByte() | 0x80, compressed.getByte(0) & 0xff);
+
+    receiver.writeInbound(compressed);
+    ByteBuf decompressed = receiver.readInbound();
+    Assert.assertTrue(Arrays.equals(expected, ByteBufUtil.getBytes(decompressed)));
+    decompressed.release();
+
+    sender.writeOutbound(frame(MessageTypes.INVENTORY, 100));
+    ByteBuf small = sender.readOutbound();
+    Assert.assertEquals(MessageTypes.INVENTORY.asByte(), small.getByte(0));
+    Assert.assertEquals(101, small.readableBytes());
+    small.release();
+
+    sender.writeOutbound(frame(MessageTypes.P2P_HELLO, 64 * 1024));
+    ByteBuf hello = sender.readOutbound();
+    Assert.assertEquals(MessageTypes.P2P_HELLO.asByte(), hello.getByte(0));
+    hello.release();
+  }
+
+  @Test
+  public void compressFramesLargerThanOneChunk() {
+    EmbeddedChannel sender = newChannel(true);
+    EmbeddedChannel receiver = newChannel(false);
+    Random random = new Random(7);
+
+    for (int size : new int[]{32 * 1024 - 1, 40_000, 100 * 1024, 1024 * 1024}) {
+      // random words from a small alphabet: compressible, without the period of frame()
+      byte[] data = new byte[size + 1];
+      data[0] = MessageTypes.BLOCK.asByte();
+      for (int i = 1; i < data.length; i++) {
+        data[i] = (byte) ('a' + random.nextInt(random.nextInt(4) == 0 ? 26 : 4));
+      }
+
+      sender.writeOutbound(Unpooled.wrappedBuffer(data));
+      ByteBuf compressed = sender.readOutbound();
+      Assert.assertEquals(MessageTypes.BLOCK.asByte() | 0x80, compressed.getByte(0) & 0xff);
+      Assert.assertTrue(compressed.readableBytes() < data.length);
+
+      receiver.writeInbound(compressed);
+      ByteBuf decompressed = receiver.readInbound();
+      Assert.assertTrue(Arrays.equals(data, ByteBufUtil.getBytes(decompressed)));
+      decompressed.release();
+    }
+  }
+
+  @Test
+  public void sendIncompressibleFramesRaw() {
+    EmbeddedChannel sender = newChannel(true);
+    byte[] data = new byte[100 * 1024 + 1];
+    new Random(7).nextBytes(data);
+    data[0] = MessageTypes.BLOCK.asByte();
+
+    sender.writeOutbound(Unpooled.wrappedBuffer(data));
+    ByteBuf raw = sender.readOutbound();
+    Assert.assertTrue(Arrays.equals(data, ByteBufUtil.getBytes(raw)));
+    raw.release();
+  }
+
+  @Test
+  public void disabledSendsRawFrames() {
+    EmbeddedChannel sender = newChannel(false);
+    sender.writeOutbound(frame(MessageTypes.BLOCKS, 64 * 1024));
+    ByteBuf raw = sender.readOutbound();
+    Assert.assertEquals(MessageTypes.BLOCKS.asByte(), raw.getByte(0));
+    Assert.assertEquals(64 * 1024 + 1, raw.readableBytes());
+    raw.release();
+  }
+}
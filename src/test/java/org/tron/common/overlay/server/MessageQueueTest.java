@@ -0,0 +1,46 @@
+package org.tron.common.overlay.server;
+
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.MessageTypes;
+import org.tron.core.net.message.TransactionMessage;
+import org.tron.protos.Protocol.Transaction;
+
+public class MessageQueueTest {
+
+  @Test
+  public void blocksGoFirstInOneFlush() {
+    EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    MessageQueue queue = new MessageQueue();
+    queue.activate(channel.pipeline().firstContext());
+
+    queue.sendMessage(new TransactionMessage(Transaction.getDefaultInstance()));
+    queue.sendMessage(new BlockMessage(
+        new BlockCapsule(1, Sha256Hash.ZERO_HASH, 0, ByteString.EMPTY)));
+    Assert.assertNull(channel.readOutbound());
+
+    channel.runPendingTasks();
+    Assert.assertEquals(MessageTypes.BLOCK.asByte(), readType(channel));
+    Assert.assertEquals(MessageTypes.TRX.asByte(), readType(channel));
+    Assert.assertNull(channel.readOutbound());
+
+    queue.close();
+    queue.sendMessage(new TransactionMessage(Transaction.getDefaultInstance()));
+    channel.runPendingTasks();
+    Assert.assertNull(channel.readOutbound());
+  }
+
+  private static byte readType(EmbeddedChannel channel) {
+    ByteBuf buf = channel.readOutbound();
+    byte type = buf.readByte();
+    buf.release();
+    return type;
+  }
+}
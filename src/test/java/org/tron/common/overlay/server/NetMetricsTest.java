@@ -0,0 +1,34 @@
+package org.tron.common.overlay.server;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.core.net.message.MessageTypes;
+
+public class NetMetricsTest {
+
+  @Test
+  public void countMessagesByType() {
+    MetricRegistry registry = NetMetrics.getRegistry();
+    long messages = registry.meter("net.in.messages.BLOCK").getCount();
+    long bytes = registry.meter("net.in.bytes.BLOCK").getCount();
+
+    NetMetrics.inMessage(MessageTypes.BLOCK.asByte(), 100);
+    NetMetrics.inMessage(MessageTypes.DISCOVER_PING.asByte(), 100);
+    NetMetrics.inMessage((byte) 0x7f, 100);
+
+    Assert.assertEquals(messages + 1, registry.meter("net.in.messages.BLOCK").getCount());
+    Assert.assertEquals(bytes + 100, registry.meter("net.in.bytes.BLOCK").getCount());
+    Assert.assertFalse(registry.getMeters().containsKey("net.in.messages.DISCOVER_PING"));
+  }
+
+  @Test
+  public void recordRoundTrips() {
+    Timer rtt = NetMetrics.getRegistry().timer("net.rtt.SYNC_BLOCK_CHAIN");
+    long count = rtt.getCount();
+    NetMetrics.requestAnswered(MessageTypes.SYNC_BLOCK_CHAIN, System.currentTimeMillis() - 50);
+    Assert.assertEquals(count + 1, rtt.getCount());
+    Assert.assertTrue(rtt.getSnapshot().getMax() >= 50_000_000L);
+  }
+}
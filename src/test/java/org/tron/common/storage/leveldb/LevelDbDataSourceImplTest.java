@@ -25,6 +25,7 @@ import static org.junit.Assert.assertNull;
 
 import com.google.common.collect.Sets;
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -38,6 +39,7 @@ import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.FileUtil;
 import org.tron.core.Constant;
 import org.tron.core.config.args.Args;
+import org.tron.core.db.common.iterator.DBIterator;
 
 @Slf4j
 public class LevelDbDataSourceImplTest {
@@ -246,6 +248,30 @@ public class LevelDbDataSourceImplTest {
     dataSource.resetDb();
   }
 
+  @Test
+  public void iteratorCloseAfterEnd() throws IOException {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_iterator_close");
+    dataSource.initDB();
+    dataSource.resetDb();
+
+    try (DBIterator iterator = dataSource.iterator()) {
+      assertFalse(iterator.hasNext());
+      assertFalse(iterator.hasNext());
+    }
+
+    putSomeKeyValue(dataSource);
+    int count = 0;
+    try (DBIterator iterator = dataSource.iterator()) {
+      while (iterator.hasNext()) {
+        iterator.next();
+        count++;
+      }
+    }
+    assertEquals(6, count);
+    dataSource.resetDb();
+  }
+
   @Test
   public void getValuesPrev() {
     LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
@@ -0,0 +1,62 @@
+package org.tron.common.utils;
+
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.crypto.Hash;
+
+/**
+ * Throughput per core of hashing with a new digest per call and with the digest of the thread,
+ * run by hand: java -cp ... org.tron.common.utils.HashBenchmark [input size] [seconds]
+ */
+@Slf4j
+public class HashBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+    long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    byte[] input = new byte[size];
+    new Random(1).nextBytes(input);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      run(executor, threads, seconds, "sha256 new digest", data -> {
+        MessageDigest digest = Sha256Hash.newDigest();
+        return digest.digest(data);
+      }, input);
+      run(executor, threads, seconds, "sha256 thread digest", Sha256Hash::hash, input);
+      run(executor, threads, seconds, "sha3 thread digest", Hash::sha3, input);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void run(ExecutorService executor, int threads, long seconds, String name,
+      Function<byte[], byte[]> hash, byte[] input) throws Exception {
+    Future<Long>[] futures = new Future[threads];
+    for (int t = 0; t < threads; t++) {
+      futures[t] = executor.submit(() -> {
+        byte[] data = input.clone();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long count = 0;
+        while (System.nanoTime() < end) {
+          data[0] ^= hash.apply(data)[0];
+          count++;
+        }
+        return count;
+      });
+    }
+    long total = 0;
+    for (Future<Long> future : futures) {
+      total += future.get();
+    }
+    logger.info("{}: {} hashes/s per core, {} threads", name, total / seconds / threads, threads);
+  }
+}
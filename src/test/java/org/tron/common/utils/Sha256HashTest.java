@@ -0,0 +1,93 @@
+package org.tron.common.utils;
+
+import com.google.protobuf.ByteString;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.crypto.Hash;
+import org.tron.protos.Protocol.Transaction;
+
+public class Sha256HashTest {
+
+  private static byte[] randomBytes(Random random, int length) {
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static Transaction newTransaction(byte[] data) {
+    return Transaction.newBuilder()
+        .setRawData(Transaction.raw.newBuilder()
+            .setData(ByteString.copyFrom(data))
+            .setTimestamp(1234))
+        .build();
+  }
+
+  @Test
+  public void testHashWithoutCopy() {
+    Random random = new Random(7);
+    byte[] bytes = randomBytes(random, 1000);
+    byte[] expected = Sha256Hash.hash(bytes);
+
+    ByteString rope = ByteString.copyFrom(bytes, 0, 300)
+        .concat(ByteString.copyFrom(bytes, 300, 700));
+    Assert.assertArrayEquals(expected, Sha256Hash.hash(rope));
+    Assert.assertEquals(Sha256Hash.wrap(expected), Sha256Hash.of(rope));
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 10);
+    buffer.put(new byte[10]).put(bytes).flip().position(10);
+    Assert.assertArrayEquals(expected, Sha256Hash.hash(buffer));
+    Assert.assertEquals(10, buffer.position());
+
+    Assert.assertArrayEquals(Hash.sha3(bytes), Hash.sha3(rope));
+    Assert.assertArrayEquals(Hash.sha3(bytes), Hash.sha3(ByteString.copyFrom(bytes)));
+    byte[] large = randomBytes(random, 10_000);
+    Assert.assertArrayEquals(Hash.sha3(large), Hash.sha3(ByteString.copyFrom(large)));
+  }
+
+  @Test
+  public void testHashMessage() {
+    Random random = new Random(8);
+    for (int size : new int[]{0, 100, 4000, 4096, 100_000}) {
+      Transaction transaction = newTransaction(randomBytes(random, size));
+      Assert.assertEquals(Sha256Hash.of(transaction.toByteArray()), Sha256Hash.of(transaction));
+      Assert.assertEquals(Sha256Hash.of(transaction.getRawData().toByteArray()),
+          Sha256Hash.of(transaction.getRawData()));
+    }
+  }
+
+  @Test
+  public void testDigestPerThread() throws Exception {
+    Random random = new Random(9);
+    byte[][] inputs = new byte[64][];
+    byte[][] expected = new byte[inputs.length][];
+    for (int i = 0; i < inputs.length; i++) {
+      inputs[i] = randomBytes(random, 10 + i * 100);
+      expected[i] = Sha256Hash.newDigest().digest(inputs[i]);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<?>[] futures = new Future<?>[4];
+      for (int t = 0; t < futures.length; t++) {
+        futures[t] = executor.submit(() -> {
+          for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < inputs.length; i++) {
+              Assert.assertTrue(Arrays.equals(expected[i], Sha256Hash.hash(inputs[i])));
+            }
+          }
+        });
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -15,9 +15,82 @@
 
 package org.tron.core;
 
+import com.google.protobuf.ByteString;
+import java.security.SignatureException;
+import java.util.Arrays;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.crypto.ECKey;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.exception.ValidateSignatureException;
+import org.tron.protos.Contract.TransferContract;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
 
 @Slf4j
 public class TransactionCapsuleTest {
 
+  private static TransactionCapsule newTransfer(ECKey owner) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(owner.getAddress()))
+        .setToAddress(ByteString.copyFrom(new ECKey().getAddress()))
+        .setAmount(1)
+        .build();
+    return new TransactionCapsule(contract, ContractType.TransferContract);
+  }
+
+  private static Transaction sign(TransactionCapsule trx, ECKey key) {
+    byte[] hash = trx.getTransactionId().getBytes();
+    return trx.getInstance().toBuilder()
+        .addSignature(ByteString.copyFrom(key.sign(hash).toByteArray()))
+        .build();
+  }
+
+  @Test
+  public void transactionIdFollowsChanges() {
+    TransactionCapsule trx = newTransfer(new ECKey());
+    Sha256Hash id = trx.getTransactionId();
+    byte[] data = trx.getData();
+    Assert.assertSame(id, trx.getTransactionId());
+
+    trx.setExpiration(1000L);
+    Assert.assertNotEquals(id, trx.getTransactionId());
+    Assert.assertEquals(new TransactionCapsule(trx.getInstance()).getTransactionId(),
+        trx.getTransactionId());
+    Assert.assertFalse(Arrays.equals(data, trx.getData()));
+    Assert.assertEquals(Sha256Hash.of(trx.getInstance().toByteArray()), trx.getMerkleHash());
+  }
+
+  @Test
+  public void signatureWithoutBase64() throws SignatureException {
+    ECKey owner = new ECKey();
+    TransactionCapsule trx = newTransfer(owner);
+    ByteString signature = sign(trx, owner).getSignature(0);
+    byte[] hash = trx.getTransactionId().getBytes();
+
+    Assert.assertArrayEquals(
+        ECKey.signatureToAddress(hash, TransactionCapsule.getBase64FromByteString(signature)),
+        ECKey.signatureToAddress(hash, signature.toByteArray()));
+  }
+
+  @Test
+  public void verifiedSignatureIsCached() throws ValidateSignatureException {
+    ECKey owner = new ECKey();
+    TransactionCapsule trx = newTransfer(owner);
+    Transaction signed = sign(trx, owner);
+
+    Assert.assertTrue(new TransactionCapsule(signed).validateSignature());
+    Assert.assertTrue(new TransactionCapsule(signed).validateSignature());
+  }
+
+  @Test(expected = ValidateSignatureException.class)
+  public void otherSignatureOfSameTransactionIsVerified() throws ValidateSignatureException {
+    ECKey owner = new ECKey();
+    TransactionCapsule trx = newTransfer(owner);
+    Assert.assertTrue(new TransactionCapsule(sign(trx, owner)).validateSignature());
+
+    new TransactionCapsule(sign(trx, new ECKey())).validateSignature();
+  }
 }
@@ -2,6 +2,8 @@ package org.tron.core.capsule;
 
 import com.google.protobuf.ByteString;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -12,6 +14,7 @@ import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.Sha256Hash;
 import org.tron.core.Constant;
 import org.tron.core.Wallet;
+import org.tron.core.capsule.utils.MerkleProof;
 import org.tron.core.config.args.Args;
 import org.tron.core.exception.BadItemException;
 import org.tron.protos.Contract.TransferContract;
@@ -106,6 +109,71 @@ public class BlockCapsuleTest {
 
   }
 
+  @Test
+  public void testBlockIdFollowsMerkleRoot() throws BadItemException {
+    BlockCapsule blockCapsule = new BlockCapsule(2, Sha256Hash.ZERO_HASH, 5678,
+        ByteString.copyFrom("1234567".getBytes()));
+    Sha256Hash emptyBlockId = blockCapsule.getBlockId();
+
+    TransferContract transferContract = TransferContract.newBuilder()
+        .setAmount(1L)
+        .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+        .build();
+    blockCapsule
+        .addTransaction(new TransactionCapsule(transferContract, ContractType.TransferContract));
+    blockCapsule.setMerkleRoot();
+
+    Assert.assertNotEquals(emptyBlockId, blockCapsule.getBlockId());
+    Assert.assertEquals(new BlockCapsule(blockCapsule.getData()).getBlockId(),
+        blockCapsule.getBlockId());
+  }
+
+  @Test
+  public void testAddTransactionsTracksSize() {
+    BlockCapsule blockCapsule = new BlockCapsule(3, Sha256Hash.ZERO_HASH, 5678,
+        ByteString.copyFrom("1234567".getBytes()));
+    long blockSize = blockCapsule.getInstance().getSerializedSize();
+
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      TransferContract transferContract = TransferContract.newBuilder()
+          .setAmount(i)
+          .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+          .build();
+      TransactionCapsule trx =
+          new TransactionCapsule(transferContract, ContractType.TransferContract);
+      transactions.add(trx);
+      blockSize += BlockCapsule.getTransactionSize(trx);
+    }
+    blockCapsule.addTransactions(transactions);
+
+    Assert.assertEquals(blockSize, blockCapsule.getInstance().getSerializedSize());
+    Assert.assertEquals(3, blockCapsule.getTransactions().size());
+    Assert.assertEquals(3, blockCapsule.getInstance().getTransactionsCount());
+  }
+
+  @Test
+  public void testMerkleProof() {
+    BlockCapsule blockCapsule = new BlockCapsule(4, Sha256Hash.ZERO_HASH, 5678,
+        ByteString.copyFrom("1234567".getBytes()));
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    for (long i = 1; i <= 5; i++) {
+      TransferContract transferContract = TransferContract.newBuilder()
+          .setAmount(i)
+          .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+          .build();
+      transactions.add(new TransactionCapsule(transferContract, ContractType.TransferContract));
+    }
+    blockCapsule.addTransactions(transactions);
+    blockCapsule.setMerkleRoot();
+
+    for (TransactionCapsule trx : transactions) {
+      MerkleProof proof = blockCapsule.getMerkleProof(trx.getTransactionId());
+      Assert.assertTrue(proof.verify(trx.getMerkleHash(), blockCapsule.getMerkleRoot()));
+    }
+    Assert.assertNull(blockCapsule.getMerkleProof(Sha256Hash.ZERO_HASH));
+  }
+
   @Test
   public void testValidate() {
 
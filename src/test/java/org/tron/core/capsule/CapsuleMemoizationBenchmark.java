@@ -0,0 +1,93 @@
+package org.tron.core.capsule;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.utils.MerkleTree;
+import org.tron.protos.Contract.TransferContract;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+
+/**
+ * Throughput of the hash and serialization reads of a block, recomputed on every read like before
+ * and memoized in the capsules, run by hand:
+ * java -cp ... org.tron.core.capsule.CapsuleMemoizationBenchmark [transactions] [rounds]
+ *
+ * <p>Each round wraps the transactions in new capsules, so the first computation is counted, and
+ * reads the id three times, the merkle hash once and the serialized bytes twice per transaction,
+ * like the validation, the store and the broadcast of a block do.
+ */
+@Slf4j
+public class CapsuleMemoizationBenchmark {
+
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    Random random = new Random(1);
+    List<Transaction> transactions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] owner = new byte[21];
+      byte[] to = new byte[21];
+      random.nextBytes(owner);
+      random.nextBytes(to);
+      TransferContract contract = TransferContract.newBuilder()
+          .setOwnerAddress(ByteString.copyFrom(owner))
+          .setToAddress(ByteString.copyFrom(to))
+          .setAmount(random.nextInt(1_000_000) + 1)
+          .build();
+      TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+      trx.setExpiration(random.nextLong());
+      transactions.add(trx.getInstance());
+    }
+
+    for (int round = 0; round < rounds; round++) {
+      run("recomputed", transactions, CapsuleMemoizationBenchmark::recomputed);
+      run("memoized", transactions, CapsuleMemoizationBenchmark::memoized);
+    }
+  }
+
+  private static int recomputed(List<Transaction> transactions) {
+    int sink = 0;
+    List<Sha256Hash> merkleHashes = new ArrayList<>(transactions.size());
+    for (Transaction transaction : transactions) {
+      for (int i = 0; i < 3; i++) {
+        sink += Sha256Hash.of(transaction.getRawData().toByteArray()).hashCode();
+      }
+      for (int i = 0; i < 2; i++) {
+        sink += transaction.toByteArray().length;
+      }
+      merkleHashes.add(Sha256Hash.of(transaction.toByteArray()));
+    }
+    return sink + MerkleTree.root(merkleHashes).hashCode();
+  }
+
+  private static int memoized(List<Transaction> transactions) {
+    int sink = 0;
+    List<Sha256Hash> merkleHashes = new ArrayList<>(transactions.size());
+    for (Transaction transaction : transactions) {
+      TransactionCapsule trx = new TransactionCapsule(transaction);
+      for (int i = 0; i < 3; i++) {
+        sink += trx.getTransactionId().hashCode();
+      }
+      for (int i = 0; i < 2; i++) {
+        sink += trx.getData().length;
+      }
+      merkleHashes.add(trx.getMerkleHash());
+    }
+    return sink + MerkleTree.root(merkleHashes).hashCode();
+  }
+
+  private static void run(String name, List<Transaction> transactions,
+      ToIntFunction<List<Transaction>> reads) {
+    long start = System.nanoTime();
+    int sink = reads.applyAsInt(transactions);
+    long micros = (System.nanoTime() - start) / 1000;
+    logger.info("{}: {} transactions/s ({})", name,
+        transactions.size() * 1_000_000L / Math.max(micros, 1), sink);
+  }
+}
@@ -37,7 +37,7 @@ public class MerkleTreeTest {
   public void test0HashNum() {
     List<Sha256Hash> hashList = getHash(0);  //Empty list.
     try {
-      MerkleTree.getInstance().createTree(hashList);
+      MerkleTree.createTree(hashList);
       Assert.assertFalse(true);
     } catch (Exception e) {
       Assert.assertTrue(e instanceof IndexOutOfBoundsException);
@@ -55,8 +55,7 @@ public class MerkleTreeTest {
    */
   public void test1HashNum() {
     List<Sha256Hash> hashList = getHash(1);
-    MerkleTree tree = MerkleTree.getInstance().createTree(hashList);
-    Leaf root = tree.getRoot();
+    Leaf root = MerkleTree.createTree(hashList);
     Assert.assertEquals(root.getHash(), hashList.get(0));
 
     Leaf left = root.getLeft();
@@ -78,8 +77,7 @@ public class MerkleTreeTest {
    */
   public void test2HashNum() {
     List<Sha256Hash> hashList = getHash(2);
-    MerkleTree tree = MerkleTree.getInstance().createTree(hashList);
-    Leaf root = tree.getRoot();
+    Leaf root = MerkleTree.createTree(hashList);
     Assert.assertEquals(root.getHash(), computeHash(hashList.get(0), hashList.get(1)));
 
     Leaf left = root.getLeft();
@@ -116,12 +114,55 @@ public class MerkleTreeTest {
     for (int hashNum = 1; hashNum <= maxNum; hashNum++){
       int maxRank = getRank(hashNum);
       List<Sha256Hash> hashList = getHash(hashNum);
-      MerkleTree tree = MerkleTree.getInstance().createTree(hashList);
-      Leaf root = tree.getRoot();
+      Leaf root = MerkleTree.createTree(hashList);
       pareTree(root, hashList, maxRank, 0, 0);
     }
   }
 
+  @Test
+  public void testRootMatchesTree() {
+    for (int hashNum = 1; hashNum <= 128; hashNum++) {
+      List<Sha256Hash> hashList = getHash(hashNum);
+      Assert.assertEquals(MerkleTree.createTree(hashList).getHash(),
+          MerkleTree.root(hashList));
+    }
+    // large enough to hash the first levels on the fork-join pool
+    List<Sha256Hash> hashList = getHash(MerkleTree.PARALLEL_THRESHOLD * 4 + 3);
+    Assert.assertEquals(MerkleTree.createTree(hashList).getHash(),
+        MerkleTree.root(hashList));
+  }
+
+  @Test
+  public void testProof() {
+    for (int hashNum = 1; hashNum <= 33; hashNum++) {
+      List<Sha256Hash> hashList = getHash(hashNum);
+      Sha256Hash root = MerkleTree.root(hashList);
+      for (int i = 0; i < hashNum; i++) {
+        MerkleProof proof = MerkleTree.prove(hashList, i);
+        Assert.assertTrue(proof.verify(hashList.get(i), root));
+        if (hashNum > 1) {
+          Assert.assertFalse(proof.verify(hashList.get((i + 1) % hashNum), root));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTamperedProof() {
+    List<Sha256Hash> hashList = getHash(11);
+    Sha256Hash root = MerkleTree.root(hashList);
+    MerkleProof proof = MerkleTree.prove(hashList, 6);
+
+    List<Sha256Hash> siblings = new ArrayList<>(proof.getSiblings());
+    siblings.set(1, hashList.get(0));
+    Assert.assertFalse(new MerkleProof(6, 11, siblings).verify(hashList.get(6), root));
+    Assert.assertFalse(new MerkleProof(7, 11, proof.getSiblings()).verify(hashList.get(6), root));
+    Assert.assertFalse(new MerkleProof(6, 7, proof.getSiblings()).verify(hashList.get(6), root));
+    Assert.assertFalse(
+        new MerkleProof(6, 11, siblings.subList(0, 2)).verify(hashList.get(6), root));
+    Assert.assertFalse(new MerkleProof(11, 11, proof.getSiblings()).verify(hashList.get(6), root));
+  }
+
   //number: the number of hash
   private static void pareTree(Leaf head, List<Sha256Hash> hashList, int maxRank, int curBank,
       int number) {
@@ -0,0 +1,83 @@
+package org.tron.core.db;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.capsule.BytesCapsule;
+import org.tron.core.config.DefaultConfig;
+import org.tron.core.config.args.Args;
+
+@Slf4j
+public class BlockJournalTest {
+
+  private static final String dbPath = "output-blockJournal-test";
+  private static AnnotationConfigApplicationContext context;
+  private BlockJournal blockJournal;
+  private VoteTallyStore voteTallyStore;
+
+  static {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    context = new AnnotationConfigApplicationContext(DefaultConfig.class);
+  }
+
+  @Before
+  public void init() {
+    blockJournal = context.getBean(BlockJournal.class);
+    voteTallyStore = context.getBean(VoteTallyStore.class);
+    blockJournal.truncate();
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+    context.destroy();
+  }
+
+  @Test
+  public void latestRowOfEveryKeyIsReplayed() {
+    byte[] written = "written".getBytes();
+    byte[] deleted = "deleted".getBytes();
+    voteTallyStore.put(deleted, new BytesCapsule("before".getBytes()));
+    voteTallyStore.flush();
+
+    Map<byte[], byte[]> firstBlock = new HashMap<>();
+    firstBlock.put(written, "first".getBytes());
+    Map<byte[], byte[]> secondBlock = new HashMap<>();
+    secondBlock.put(written, "second".getBytes());
+    secondBlock.put(deleted, null);
+    blockJournal.append(rowsOf(voteTallyStore, firstBlock));
+    blockJournal.append(rowsOf(voteTallyStore, secondBlock));
+
+    Map<String, Map<byte[], byte[]>> journaled = blockJournal.load();
+    Assert.assertEquals(1, journaled.size());
+    Map<byte[], byte[]> rows = journaled.get(voteTallyStore.getDbSource().getDBName());
+    Assert.assertEquals(2, rows.size());
+
+    voteTallyStore.replay(rows);
+    Assert.assertArrayEquals("second".getBytes(), voteTallyStore.get(written).getData());
+    Assert.assertFalse(voteTallyStore.has(deleted));
+
+    voteTallyStore.flush();
+    blockJournal.truncate();
+    Assert.assertTrue(blockJournal.load().isEmpty());
+    Assert.assertArrayEquals("second".getBytes(),
+        voteTallyStore.getDbSource().getData(written));
+    Assert.assertNull(voteTallyStore.getDbSource().getData(deleted));
+  }
+
+  private static Map<String, Map<byte[], byte[]>> rowsOf(TronStoreWithRevoking<?> store,
+      Map<byte[], byte[]> rows) {
+    Map<String, Map<byte[], byte[]>> rowsByStore = new HashMap<>();
+    rowsByStore.put(store.getDbSource().getDBName(), rows);
+    return rowsByStore;
+  }
+}
@@ -88,6 +88,38 @@ public class KhaosDatabaseTest {
   }
 
 
+  @Test
+  public void testRestartReloadsForkTree()
+      throws UnLinkedBlockException, BadNumberBlockException {
+    BlockCapsule root = new BlockCapsule(Block.newBuilder().setBlockHeader(
+        BlockHeader.newBuilder().setRawData(raw.newBuilder().setParentHash(ByteString.copyFrom(
+            ByteArray
+                .fromHexString("0304f784e4e7bae517bcab94c3e0c9214fb4ac7ff9d7d5a937d1f40031f87b83")))
+            .setNumber(10)
+        )).build());
+    BlockCapsule main = new BlockCapsule(Block.newBuilder().setBlockHeader(
+        BlockHeader.newBuilder().setRawData(raw.newBuilder().setParentHash(
+            root.getBlockId().getByteString()).setNumber(11).setTimestamp(1))).build());
+    BlockCapsule fork = new BlockCapsule(Block.newBuilder().setBlockHeader(
+        BlockHeader.newBuilder().setRawData(raw.newBuilder().setParentHash(
+            root.getBlockId().getByteString()).setNumber(11).setTimestamp(2))).build());
+
+    khaosDatabase.start(root);
+    khaosDatabase.push(main);
+    khaosDatabase.push(fork);
+
+    khaosDatabase.start(main);
+    Assert.assertTrue(khaosDatabase.containBlockInMiniStore(fork.getBlockId()));
+    Assert.assertEquals(root, khaosDatabase.getParentBlock(fork.getBlockId()));
+    Assert.assertEquals(1,
+        khaosDatabase.getBranch(main.getBlockId(), fork.getBlockId()).getKey().size());
+
+    khaosDatabase.prune(11);
+    khaosDatabase.start(main);
+    Assert.assertFalse(khaosDatabase.containBlock(root.getBlockId()));
+    Assert.assertTrue(khaosDatabase.containBlockInMiniStore(fork.getBlockId()));
+  }
+
   @Test
   public void checkWeakReference() throws UnLinkedBlockException, BadNumberBlockException {
     BlockCapsule blockCapsule = new BlockCapsule(Block.newBuilder().setBlockHeader(
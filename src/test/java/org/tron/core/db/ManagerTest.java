@@ -3,6 +3,8 @@ package org.tron.core.db;
 import com.google.common.collect.Maps;
 import com.google.protobuf.ByteString;
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -24,6 +26,7 @@ import org.tron.core.capsule.TransactionCapsule;
 import org.tron.core.capsule.WitnessCapsule;
 import org.tron.core.config.DefaultConfig;
 import org.tron.core.config.args.Args;
+import org.tron.core.db.AbstractRevokingStore.Dialog;
 import org.tron.core.exception.AccountResourceInsufficientException;
 import org.tron.core.exception.BadItemException;
 import org.tron.core.exception.BadNumberBlockException;
@@ -32,6 +35,7 @@ import org.tron.core.exception.ContractValidateException;
 import org.tron.core.exception.DupTransactionException;
 import org.tron.core.exception.HeaderNotFound;
 import org.tron.core.exception.ItemNotFoundException;
+import org.tron.core.exception.RevokingStoreIllegalStateException;
 import org.tron.core.exception.TaposException;
 import org.tron.core.exception.TooBigTransactionException;
 import org.tron.core.exception.TransactionExpirationException;
@@ -130,6 +134,47 @@ public class ManagerTest {
         ByteArray.toInt(trx.getInstance().getRawData().getRefBlockBytes().toByteArray()));
   }
 
+  @Test
+  public void dynamicPropertiesFollowRevoke() throws RevokingStoreIllegalStateException {
+    DynamicPropertiesStore store = dbManager.getDynamicPropertiesStore();
+    long usage = store.getPublicNetUsage();
+    long number = store.getLatestBlockHeaderNumber();
+    Assert.assertSame(store.getHeadProperties(), store.getHeadProperties());
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      store.savePublicNetUsage(usage + 100);
+      Assert.assertEquals(usage + 100, store.getPublicNetUsage());
+      Assert.assertEquals(number, store.getHeadProperties().getNumber());
+      store.saveLatestBlockHeaderNumber(number + 1);
+      Assert.assertEquals(number, store.getHeadProperties().getNumber());
+      store.updateHeadProperties();
+      Assert.assertEquals(number + 1, store.getHeadProperties().getNumber());
+    }
+    Assert.assertEquals(usage, store.getPublicNetUsage());
+    Assert.assertEquals(number, store.getHeadProperties().getNumber());
+  }
+
+  @Test
+  public void witnessScheduleFollowsRevokeAndPop() throws RevokingStoreIllegalStateException {
+    dbManager.resetPendingDialog();
+    WitnessScheduleStore store = dbManager.getWitnessScheduleStore();
+    List<ByteString> active = store.getActiveWitnesses();
+    Assert.assertSame(store.getActiveWitnessSchedule(), store.getActiveWitnessSchedule());
+    List<ByteString> changed = Collections.singletonList(ByteString.copyFrom(new byte[21]));
+
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      store.saveActiveWitnesses(changed);
+      Assert.assertEquals(changed, store.getActiveWitnessSchedule().getWitnesses());
+    }
+    Assert.assertEquals(active, store.getActiveWitnessSchedule().getWitnesses());
+
+    Dialog dialog = RevokingStore.getInstance().buildDialog(true);
+    store.saveActiveWitnesses(changed);
+    dialog.commit();
+    Assert.assertEquals(changed, store.getActiveWitnessSchedule().getWitnesses());
+    RevokingStore.getInstance().pop();
+    Assert.assertEquals(active, store.getActiveWitnessSchedule().getWitnesses());
+  }
+
   @Test
   public void pushBlock() {
     boolean isUnlinked = false;
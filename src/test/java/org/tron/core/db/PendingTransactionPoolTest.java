@@ -0,0 +1,105 @@
+package org.tron.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.protos.Contract.TransferContract;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+
+public class PendingTransactionPoolTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom("owner".getBytes());
+  private static final ByteString OTHER = ByteString.copyFrom("other".getBytes());
+
+  private static TransactionCapsule newTransfer(ByteString owner, ByteString to, long amount,
+      long expiration) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(owner)
+        .setToAddress(to)
+        .setAmount(amount)
+        .build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.setExpiration(expiration);
+    return trx;
+  }
+
+  @Test
+  public void keepArrivalOrderAndCap() {
+    PendingTransactionPool pool = new PendingTransactionPool(2);
+    TransactionCapsule first = newTransfer(OWNER, OTHER, 1, 1000);
+    TransactionCapsule second = newTransfer(OTHER, OWNER, 2, 1000);
+
+    Assert.assertTrue(pool.add(first));
+    Assert.assertFalse(pool.add(first));
+    Assert.assertTrue(pool.add(second));
+    Assert.assertTrue(pool.isFull());
+    Assert.assertFalse(pool.add(newTransfer(OWNER, OTHER, 3, 1000)));
+    Assert.assertEquals(Arrays.asList(first, second), pool.getTransactions());
+  }
+
+  @Test
+  public void blockRemovesIncludedAndTouchesAccounts() {
+    PendingTransactionPool pool = new PendingTransactionPool(10);
+    TransactionCapsule included = newTransfer(OWNER, OTHER, 1, 1000);
+    TransactionCapsule pending = newTransfer(OWNER, OTHER, 2, 1000);
+    pool.add(included);
+    pool.add(pending);
+    pool.markAllUnapplied();
+
+    BlockCapsule block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 0, ByteString.EMPTY);
+    block.addTransactions(Collections.singletonList(included));
+    pool.onBlockApplied(block);
+
+    Assert.assertFalse(pool.contains(included.getTransactionId()));
+    Assert.assertEquals(Collections.singletonList(OWNER), pool.pollTouchedOwners());
+    Assert.assertTrue(pool.pollTouchedOwners().isEmpty());
+    Assert.assertEquals(Collections.singletonList(pending),
+        pool.getUnapplied(Collections.singleton(OWNER)));
+
+    pool.markApplied(pending.getTransactionId());
+    Assert.assertTrue(pool.getUnapplied(Collections.singleton(OWNER)).isEmpty());
+  }
+
+  @Test
+  public void unappliedWithDependencies() {
+    ByteString third = ByteString.copyFrom("third".getBytes());
+    ByteString unrelated = ByteString.copyFrom("unrelated".getBytes());
+    ByteString payee = ByteString.copyFrom("payee".getBytes());
+    PendingTransactionPool pool = new PendingTransactionPool(10);
+    // OTHER receives from third, then spends it to OWNER, which spends it too
+    TransactionCapsule funding = newTransfer(third, OTHER, 1, 1000);
+    TransactionCapsule noise = newTransfer(unrelated, unrelated, 2, 1000);
+    TransactionCapsule received = newTransfer(OTHER, OWNER, 3, 1000);
+    TransactionCapsule spent = newTransfer(OWNER, payee, 4, 1000);
+    pool.add(funding);
+    pool.add(noise);
+    pool.add(received);
+    pool.add(spent);
+    pool.markAllUnapplied();
+
+    Assert.assertEquals(Arrays.asList(funding, received, spent),
+        pool.getUnapplied(Collections.singleton(OWNER)));
+    Assert.assertEquals(Arrays.asList(funding, noise, received, spent), pool.getUnapplied());
+
+    pool.markApplied(received.getTransactionId());
+    Assert.assertEquals(Collections.singletonList(spent),
+        pool.getUnapplied(Collections.singleton(OWNER)));
+  }
+
+  @Test
+  public void evictExpired() {
+    PendingTransactionPool pool = new PendingTransactionPool(10);
+    TransactionCapsule expired = newTransfer(OWNER, OTHER, 1, 1000);
+    TransactionCapsule alive = newTransfer(OWNER, OTHER, 2, 2000);
+    pool.add(expired);
+    pool.add(alive);
+
+    Assert.assertEquals(1, pool.evictExpired(1000));
+    Assert.assertEquals(Collections.singletonList(alive), pool.getTransactions());
+  }
+}
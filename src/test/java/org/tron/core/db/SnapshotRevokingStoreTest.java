@@ -0,0 +1,150 @@
+package org.tron.core.db;
+
+import java.io.File;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.capsule.ProtoCapsule;
+import org.tron.core.config.args.Args;
+import org.tron.core.db.AbstractRevokingStore.Dialog;
+import org.tron.core.exception.RevokingStoreIllegalStateException;
+
+@Slf4j
+public class SnapshotRevokingStoreTest {
+
+  private static final String dbPath = "output_snapshotRevokingStore_test";
+
+  private SnapshotRevokingStore revokingDatabase;
+  private TestSnapshotTronStore tronDatabase;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    revokingDatabase = new SnapshotRevokingStore();
+    revokingDatabase.enable();
+    tronDatabase = new TestSnapshotTronStore("testsnapshotrevokingstore", revokingDatabase);
+  }
+
+  @After
+  public void removeDb() {
+    tronDatabase.close();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void revokeDropsSnapshot() throws RevokingStoreIllegalStateException {
+    byte[] key = "revoke".getBytes();
+    try (Dialog dialog = revokingDatabase.buildDialog()) {
+      tronDatabase.put(key, new TestProtoCapsule(key));
+      Assert.assertTrue(tronDatabase.has(key));
+      Assert.assertNull(tronDatabase.getDbSource().getData(key));
+    }
+
+    Assert.assertFalse(tronDatabase.has(key));
+    Assert.assertEquals(0, revokingDatabase.size());
+  }
+
+  @Test
+  public void mergeIntoPreviousSnapshot() throws RevokingStoreIllegalStateException {
+    byte[] key = "merge".getBytes();
+    try (Dialog dialog = revokingDatabase.buildDialog()) {
+      try (Dialog tmpDialog = revokingDatabase.buildDialog()) {
+        tronDatabase.put(key, new TestProtoCapsule(key));
+        tmpDialog.merge();
+      }
+      Assert.assertEquals(1, revokingDatabase.size());
+      Assert.assertTrue(tronDatabase.has(key));
+    }
+
+    Assert.assertFalse(tronDatabase.has(key));
+  }
+
+  @Test
+  public void popAndSolidify() throws RevokingStoreIllegalStateException {
+    for (int i = 1; i < 11; i++) {
+      byte[] key = ("pop" + i).getBytes();
+      try (Dialog tmpDialog = revokingDatabase.buildDialog()) {
+        tronDatabase.put(key, new TestProtoCapsule(key));
+        tmpDialog.commit();
+      }
+      Assert.assertEquals(i, revokingDatabase.size());
+    }
+    Assert.assertTrue(tronDatabase.getDbSource().allKeys().isEmpty());
+
+    revokingDatabase.pop();
+    Assert.assertFalse(tronDatabase.has("pop10".getBytes()));
+    Assert.assertTrue(tronDatabase.has("pop9".getBytes()));
+
+    revokingDatabase.solidify(3);
+    Assert.assertEquals(3, revokingDatabase.size());
+    Assert.assertEquals(6, tronDatabase.getDbSource().allKeys().size());
+    Assert.assertNotNull(tronDatabase.getDbSource().getData("pop6".getBytes()));
+    Assert.assertNull(tronDatabase.getDbSource().getData("pop7".getBytes()));
+
+    revokingDatabase.shutdown();
+    Assert.assertEquals(0, revokingDatabase.size());
+    Assert.assertTrue(tronDatabase.has("pop6".getBytes()));
+    Assert.assertFalse(tronDatabase.has("pop7".getBytes()));
+  }
+
+  @Test
+  public void deleteHidesValueOnDisk() throws RevokingStoreIllegalStateException {
+    byte[] key = "delete".getBytes();
+    revokingDatabase.disable();
+    tronDatabase.put(key, new TestProtoCapsule(key));
+    revokingDatabase.enable();
+
+    try (Dialog dialog = revokingDatabase.buildDialog()) {
+      tronDatabase.delete(key);
+      Assert.assertFalse(tronDatabase.has(key));
+      Assert.assertNotNull(tronDatabase.getDbSource().getData(key));
+    }
+
+    Assert.assertTrue(tronDatabase.has(key));
+  }
+
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  private static class TestProtoCapsule implements ProtoCapsule<Object> {
+
+    private byte[] value;
+
+    @Override
+    public byte[] getData() {
+      return value;
+    }
+
+    @Override
+    public Object getInstance() {
+      return value;
+    }
+  }
+
+  private static class TestSnapshotTronStore extends TronStoreWithRevoking<TestProtoCapsule> {
+
+    TestSnapshotTronStore(String dbName, RevokingDatabase revokingDatabase) {
+      super(dbName, revokingDatabase);
+    }
+
+    @Override
+    public TestProtoCapsule get(byte[] key) {
+      byte[] value = getValue(key);
+      return ArrayUtils.isEmpty(value) ? null : new TestProtoCapsule(value);
+    }
+
+    @Override
+    public boolean has(byte[] key) {
+      return getValue(key) != null;
+    }
+  }
+}
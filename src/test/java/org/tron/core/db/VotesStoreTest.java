@@ -2,8 +2,10 @@ package org.tron.core.db;
 
 import com.google.protobuf.ByteString;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -15,6 +17,9 @@ import org.tron.core.Constant;
 import org.tron.core.capsule.VotesCapsule;
 import org.tron.core.config.DefaultConfig;
 import org.tron.core.config.args.Args;
+import org.tron.core.db.AbstractRevokingStore.Dialog;
+import org.tron.core.db.common.iterator.DBIterator;
+import org.tron.core.exception.RevokingStoreIllegalStateException;
 import org.tron.protos.Protocol.Vote;
 
 @Slf4j
@@ -62,4 +67,82 @@ public class VotesStoreTest {
 //    Assert.assertEquals(votesCapsule.getAddress(), votesSource.getAddress());
 //    Assert.assertEquals(null, votesSource.getAddress());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void tallyFollowsVotes() {
+    votesStore.reset();
+    ByteString voter1 = ByteString.copyFromUtf8("voter1");
+    ByteString voter2 = ByteString.copyFromUtf8("voter2");
+    ByteString witness1 = ByteString.copyFromUtf8("witness1");
+    ByteString witness2 = ByteString.copyFromUtf8("witness2");
+    ByteString witness3 = ByteString.copyFromUtf8("witness3");
+
+    List<Vote> oldVotes = new ArrayList<>();
+    oldVotes.add(Vote.newBuilder().setVoteAddress(witness1).setVoteCount(5).build());
+    VotesCapsule votes1 = new VotesCapsule(voter1, oldVotes);
+    votes1.addNewVotes(witness2, 10);
+    votesStore.put(votes1.createDbKey(), votes1);
+
+    VotesCapsule votes2 = new VotesCapsule(voter2, new ArrayList<>());
+    votes2.addNewVotes(witness2, 3);
+    votesStore.put(votes2.createDbKey(), votes2);
+
+    Map<ByteString, Long> counts = votesStore.countVotes();
+    Assert.assertEquals(2, counts.size());
+    Assert.assertEquals(-5L, (long) counts.get(witness1));
+    Assert.assertEquals(13L, (long) counts.get(witness2));
+
+    // vote again: witness2 is not named by voter1 anymore
+    votes1.clearNewVotes();
+    votes1.addNewVotes(witness3, 7);
+    votesStore.put(votes1.createDbKey(), votes1);
+    counts = votesStore.countVotes();
+    Assert.assertEquals(3, counts.size());
+    Assert.assertEquals(-5L, (long) counts.get(witness1));
+    Assert.assertEquals(3L, (long) counts.get(witness2));
+    Assert.assertEquals(7L, (long) counts.get(witness3));
+
+    // votes cleared by an unfreeze count for nothing, not even the old votes
+    votes1.clearNewVotes();
+    votesStore.put(votes1.createDbKey(), votes1);
+    votes2.clearNewVotes();
+    votes2.addNewVotes(witness2, 0);
+    votesStore.put(votes2.createDbKey(), votes2);
+    counts = votesStore.countVotes();
+    Assert.assertEquals(1, counts.size());
+    Assert.assertEquals(0L, (long) counts.get(witness2));
+
+    votesStore.newPeriod();
+    Assert.assertTrue(votesStore.countVotes().isEmpty());
+    Assert.assertFalse(votesStore.has(votes1.createDbKey()));
+    Assert.assertFalse(votesStore.has(votes2.createDbKey()));
+  }
+
+  @Test
+  public void newPeriodIsRevokedWithTheBlock() throws RevokingStoreIllegalStateException {
+    votesStore.reset();
+    ByteString voter = ByteString.copyFromUtf8("voter");
+    ByteString witness = ByteString.copyFromUtf8("witness");
+    VotesCapsule votes = new VotesCapsule(voter, new ArrayList<>());
+    votes.addNewVotes(witness, 4);
+    votesStore.put(votes.createDbKey(), votes);
+
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      votesStore.newPeriod();
+      Assert.assertFalse(votesStore.has(votes.createDbKey()));
+      Assert.assertTrue(votesStore.countVotes().isEmpty());
+    }
+    Assert.assertTrue(votesStore.has(votes.createDbKey()));
+    Assert.assertEquals(4L, (long) votesStore.countVotes().get(witness));
+
+    // two periods later the rows of this period are gone from the db
+    votesStore.flush();
+    votesStore.newPeriod();
+    votesStore.newPeriod();
+    try (DBIterator iterator = votesStore.getIterator()) {
+      Assert.assertFalse(iterator.hasNext());
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
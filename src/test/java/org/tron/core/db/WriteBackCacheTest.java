@@ -0,0 +1,173 @@
+package org.tron.core.db;
+
+import com.google.common.collect.Streams;
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tron.common.utils.FileUtil;
+import org.tron.core.Constant;
+import org.tron.core.capsule.AccountCapsule;
+import org.tron.core.config.args.Args;
+import org.tron.core.db.AbstractRevokingStore.Dialog;
+import org.tron.core.exception.RevokingStoreIllegalStateException;
+import org.tron.protos.Protocol.AccountType;
+
+@Slf4j
+public class WriteBackCacheTest {
+
+  private static final String dbPath = "output_writeBackCache_test";
+
+  private AbstractRevokingStore revokingDatabase;
+  private TestAccountStore store;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", dbPath}, Constant.TEST_CONF);
+    revokingDatabase = new TestRevokingTronDatabase();
+    revokingDatabase.enable();
+    store = new TestAccountStore("testwritebackcache", revokingDatabase);
+  }
+
+  @After
+  public void removeDb() {
+    store.close();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void writeBack() {
+    byte[] key = "account".getBytes();
+    AccountCapsule account = newAccount(key, 100);
+    store.put(key, account);
+
+    Assert.assertNull(store.getDbSource().getData(key));
+    Assert.assertEquals(100, store.get(key).getBalance());
+
+    store.flush();
+    Assert.assertEquals(100,
+        new AccountCapsule(store.getDbSource().getData(key)).getBalance());
+  }
+
+  @Test
+  public void returnedCapsuleIsPrivate() {
+    byte[] key = "account".getBytes();
+    store.put(key, newAccount(key, 100));
+
+    AccountCapsule account = store.get(key);
+    account.setBalance(1);
+    Assert.assertEquals(100, store.get(key).getBalance());
+  }
+
+  @Test
+  public void revokeThroughCache() throws RevokingStoreIllegalStateException {
+    byte[] key = "account".getBytes();
+    store.put(key, newAccount(key, 100));
+    store.flush();
+
+    try (Dialog dialog = revokingDatabase.buildDialog()) {
+      AccountCapsule account = store.get(key);
+      account.setBalance(50);
+      store.put(key, account);
+      Assert.assertEquals(50, store.get(key).getBalance());
+    }
+
+    Assert.assertEquals(100, store.get(key).getBalance());
+    store.flush();
+    Assert.assertEquals(100,
+        new AccountCapsule(store.getDbSource().getData(key)).getBalance());
+  }
+
+  @Test
+  public void popThroughCache() throws RevokingStoreIllegalStateException {
+    byte[] key = "created".getBytes();
+    try (Dialog dialog = revokingDatabase.buildDialog()) {
+      store.put(key, newAccount(key, 100));
+      dialog.commit();
+    }
+    store.flush();
+    Assert.assertNotNull(store.getDbSource().getData(key));
+
+    revokingDatabase.pop();
+    Assert.assertNull(store.get(key));
+    store.flush();
+    Assert.assertNull(store.getDbSource().getData(key));
+  }
+
+  @Test
+  public void prefetchKeepsNewerWrites() {
+    byte[] key = "account".getBytes();
+    store.put(key, newAccount(key, 100));
+    store.flush();
+    store.put(key, newAccount(key, 50));
+
+    store.prefetch(key);
+    Assert.assertEquals(50, store.get(key).getBalance());
+
+    byte[] missing = "missing".getBytes();
+    store.prefetch(missing);
+    Assert.assertNull(store.get(missing));
+  }
+
+  @Test
+  public void iteratorSeesDirtyEntries() {
+    byte[] flushed = "a-flushed".getBytes();
+    byte[] deleted = "b-deleted".getBytes();
+    byte[] staged = "c-staged".getBytes();
+    byte[] overwritten = "d-overwritten".getBytes();
+    byte[] last = "e-last".getBytes();
+    store.put(flushed, newAccount(flushed, 1));
+    store.put(deleted, newAccount(deleted, 2));
+    store.put(overwritten, newAccount(overwritten, 4));
+    store.put(last, newAccount(last, 5));
+    store.flush();
+
+    store.delete(deleted);
+    store.put(staged, newAccount(staged, 3));
+    store.put(overwritten, newAccount(overwritten, 40));
+
+    List<String> keys = Streams.stream(store.getDbIterator())
+        .map(entry -> new String(entry.getKey()))
+        .collect(Collectors.toList());
+    Assert.assertEquals(Arrays.asList("a-flushed", "c-staged", "d-overwritten", "e-last"), keys);
+    List<Long> balances = Streams.stream(store.getDbIterator())
+        .map(entry -> new AccountCapsule(entry.getValue()).getBalance())
+        .collect(Collectors.toList());
+    Assert.assertEquals(Arrays.asList(1L, 3L, 40L, 5L), balances);
+    Assert.assertEquals(4, store.getDbSource().allKeys().size());
+  }
+
+  private static AccountCapsule newAccount(byte[] address, long balance) {
+    return new AccountCapsule(ByteString.copyFromUtf8("name"), ByteString.copyFrom(address),
+        AccountType.Normal, balance);
+  }
+
+  private static class TestAccountStore extends TronStoreWithRevoking<AccountCapsule> {
+
+    TestAccountStore(String dbName, RevokingDatabase revokingDatabase) {
+      super(dbName, revokingDatabase);
+      enableWriteBackCache(AccountCapsule::new, item -> new AccountCapsule(item.getInstance()));
+    }
+
+    @Override
+    public AccountCapsule get(byte[] key) {
+      return getCapsule(key);
+    }
+
+    @Override
+    public boolean has(byte[] key) {
+      return getValue(key) != null;
+    }
+  }
+
+  private static class TestRevokingTronDatabase extends AbstractRevokingStore {
+
+  }
+}
@@ -1,10 +1,11 @@
 package org.tron.core.net.node;
 
 import com.google.common.cache.Cache;
+import com.google.common.collect.Iterables;
 import java.io.File;
 import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +23,7 @@ import org.tron.common.overlay.message.Message;
 import org.tron.common.overlay.server.Channel;
 import org.tron.common.overlay.server.ChannelManager;
 import org.tron.common.overlay.server.MessageQueue;
+import org.tron.common.overlay.server.MessageRoundtrip;
 import org.tron.common.overlay.server.SyncPool;
 import org.tron.common.utils.FileUtil;
 import org.tron.common.utils.ReflectUtils;
@@ -160,8 +162,9 @@ public class BroadTest {
         ++count;
       }
       MessageQueue messageQueue = ReflectUtils.getFieldValue(peerConnection, "msgQueue");
-      BlockingQueue<Message> msgQueue = ReflectUtils.getFieldValue(messageQueue, "msgQueue");
-      for (Message message : msgQueue) {
+      Queue<MessageRoundtrip>[] lanes = ReflectUtils.getFieldValue(messageQueue, "lanes");
+      for (MessageRoundtrip queued : Iterables.concat(lanes)) {
+        Message message = queued.getMsg();
         if (message.getType() == MessageTypes.BLOCK) {
           Assert.assertEquals(message.getMessageId(), condition.getBlockId());
         }
@@ -5,6 +5,9 @@ import static org.junit.Assert.fail;
 
 import com.google.protobuf.ByteString;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.AfterClass;
@@ -15,6 +18,7 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import org.tron.common.application.Application;
 import org.tron.common.application.ApplicationFactory;
 import org.tron.common.crypto.ECKey;
+import org.tron.common.overlay.message.Message;
 import org.tron.common.overlay.server.SyncPool;
 import org.tron.common.utils.ByteArray;
 import org.tron.common.utils.Sha256Hash;
@@ -27,6 +31,11 @@ import org.tron.core.config.Parameter.NetConstants;
 import org.tron.core.config.args.Args;
 import org.tron.core.db.Manager;
 import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.BlockTrxsMessage;
+import org.tron.core.net.message.FetchBlockTrxsMessage;
+import org.tron.core.net.message.FetchInvDataMessage;
+import org.tron.core.net.message.InventoryMessage;
+import org.tron.core.net.message.ItemNotFound;
 import org.tron.core.net.peer.PeerConnection;
 import org.tron.protos.Protocol.Block;
 import org.tron.protos.Protocol.BlockHeader;
@@ -156,6 +165,119 @@ public class NodeImplTest {
     Assert.assertEquals(peer.getAdvObjWeRequested().size(), 0);
   }
 
+  @Test
+  public void testFetchBlockTrxsOfCompactBlockOnly() {
+    List<Message> sent = new ArrayList<>();
+    PeerConnection peer = new PeerConnection() {
+      @Override
+      public void sendMessage(Message message) {
+        sent.add(message);
+      }
+    };
+    BlockId blockId = dbManager.getGenesisBlockId();
+
+    nodeImpl.onMessage(peer, new FetchBlockTrxsMessage(blockId, Collections.emptyList()));
+    Assert.assertEquals(1, sent.size());
+    Assert.assertTrue(sent.get(0) instanceof ItemNotFound);
+
+    peer.onCompactBlockSent(blockId);
+    nodeImpl.onMessage(peer, new FetchBlockTrxsMessage(blockId, Collections.emptyList()));
+    Assert.assertEquals(2, sent.size());
+    Assert.assertTrue(sent.get(1) instanceof BlockTrxsMessage);
+  }
+
+  @Test
+  public void testFetchAdvObjByPriorityWithinPeerCap() {
+    List<FetchInvDataMessage> sent = new ArrayList<>();
+    PeerConnection peer = new PeerConnection() {
+      @Override
+      public void sendMessage(Message message) {
+        sent.add((FetchInvDataMessage) message);
+      }
+    };
+    PeerConnection syncingPeer = new PeerConnection() {
+      @Override
+      public void sendMessage(Message message) {
+        Assert.fail("fetch sent to a peer busy syncing: " + message);
+      }
+    };
+    syncingPeer.getSyncBlockRequested().put(new BlockId(), System.currentTimeMillis());
+
+    // one transaction more than a peer may have in flight, and a block announced after them
+    List<Item> trxs = new ArrayList<>();
+    for (int i = 0; i <= NetConstants.MAX_TRX_PER_PEER; i++) {
+      trxs.add(new Item(Sha256Hash.of(ByteArray.fromInt(i)), InventoryType.TRX));
+    }
+    Item block = new Item(Sha256Hash.of(ByteArray.fromString("block")), InventoryType.BLOCK);
+    List<Item> items = new ArrayList<>(trxs);
+    items.add(block);
+    for (Item item : items) {
+      peer.getAdvObjSpreadToUs().put(item.getHash(), System.currentTimeMillis());
+      syncingPeer.getAdvObjSpreadToUs().put(item.getHash(), System.currentTimeMillis());
+      nodeImpl.addAdvObjToFetch(item);
+    }
+
+    SyncPool pool = new SyncPool();
+    pool.addActivePeers(peer);
+    pool.addActivePeers(syncingPeer);
+    nodeImpl.setPool(pool);
+    try {
+      nodeImpl.consumerAdvObjToFetch();
+      Assert.assertEquals(NetConstants.MAX_TRX_PER_PEER, peer.getAdvObjWeRequested().size());
+      Assert.assertTrue(peer.getAdvObjWeRequested().containsKey(block));
+      Assert.assertTrue(peer.getAdvObjWeRequested().containsKey(trxs.get(0)));
+      Item secondLast = trxs.get(trxs.size() - 2);
+      Item last = trxs.get(trxs.size() - 1);
+      Assert.assertFalse(peer.getAdvObjWeRequested().containsKey(secondLast));
+      Assert.assertFalse(peer.getAdvObjWeRequested().containsKey(last));
+      Assert.assertEquals(2, sent.size());
+
+      // the peer answered, the next run fetches what was left over
+      peer.getAdvObjWeRequested().clear();
+      sent.clear();
+      nodeImpl.consumerAdvObjToFetch();
+      Assert.assertEquals(2, peer.getAdvObjWeRequested().size());
+      Assert.assertTrue(peer.getAdvObjWeRequested().containsKey(secondLast));
+      Assert.assertTrue(peer.getAdvObjWeRequested().containsKey(last));
+      Assert.assertEquals(1, sent.size());
+      Assert.assertEquals(InventoryType.TRX, sent.get(0).getInventoryType());
+      Assert.assertTrue(syncingPeer.getAdvObjWeRequested().isEmpty());
+    } finally {
+      nodeImpl.setPool(context.getBean(SyncPool.class));
+    }
+  }
+
+  @Test
+  public void testAdvertisedTrxIsRecordedAndFetchedOnce() {
+    List<Message> sent = new ArrayList<>();
+    PeerConnection peer = new PeerConnection() {
+      @Override
+      public void sendMessage(Message message) {
+        sent.add(message);
+      }
+    };
+    Sha256Hash id = Sha256Hash.of(ByteArray.fromString("advertised trx"));
+
+    SyncPool pool = new SyncPool();
+    pool.addActivePeers(peer);
+    nodeImpl.setPool(pool);
+    try {
+      nodeImpl.onMessage(peer,
+          new InventoryMessage(Collections.singletonList(id), InventoryType.TRX));
+      Assert.assertTrue(peer.getAdvObjSpreadToUs().containsKey(id));
+      nodeImpl.consumerAdvObjToFetch();
+      Assert.assertTrue(peer.getAdvObjWeRequested().containsKey(new Item(id, InventoryType.TRX)));
+
+      // announced again while the request is in flight
+      nodeImpl.onMessage(peer,
+          new InventoryMessage(Collections.singletonList(id), InventoryType.TRX));
+      nodeImpl.consumerAdvObjToFetch();
+      Assert.assertEquals(1, sent.size());
+    } finally {
+      nodeImpl.setPool(context.getBean(SyncPool.class));
+    }
+  }
+
   //  @Test
   public void testDisconnectInactive() {
     // generate test data
@@ -0,0 +1,74 @@
+package org.tron.core.net.node;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.core.capsule.BlockCapsule;
+import org.tron.core.capsule.TransactionCapsule;
+import org.tron.core.net.message.BlockMessage;
+import org.tron.core.net.message.CompactBlockMessage;
+import org.tron.protos.Contract.TransferContract;
+import org.tron.protos.Protocol.Transaction;
+import org.tron.protos.Protocol.Transaction.Contract.ContractType;
+
+public class PartialBlockTest {
+
+  private static TransactionCapsule newTransfer(long amount) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom("owner".getBytes()))
+        .setToAddress(ByteString.copyFrom("to".getBytes()))
+        .setAmount(amount)
+        .build();
+    return new TransactionCapsule(contract, ContractType.TransferContract);
+  }
+
+  @Test
+  public void rebuildFromKnownAndFetchedTrxs() throws Exception {
+    List<TransactionCapsule> trxs = Arrays.asList(newTransfer(1), newTransfer(2), newTransfer(3));
+    BlockCapsule block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 0, ByteString.EMPTY);
+    block.addTransactions(trxs);
+    block.setMerkleRoot();
+
+    CompactBlockMessage compactBlock = new CompactBlockMessage(
+        new CompactBlockMessage(block).getData());
+    Assert.assertEquals(block.getBlockId(), compactBlock.getBlockId());
+
+    Map<Sha256Hash, Transaction> known = new HashMap<>();
+    known.put(trxs.get(0).getTransactionId(), trxs.get(0).getInstance());
+    known.put(trxs.get(2).getTransactionId(), trxs.get(2).getInstance());
+    PartialBlock partialBlock = new PartialBlock(null, compactBlock, known::get);
+
+    Assert.assertFalse(partialBlock.isComplete());
+    Assert.assertTrue(partialBlock.isFromCache());
+    Assert.assertEquals(Collections.singletonList(1), partialBlock.getMissing());
+    Assert.assertFalse(partialBlock.fill(Collections.singletonList(trxs.get(0))));
+    Assert.assertTrue(partialBlock.fill(Collections.singletonList(trxs.get(1))));
+    Assert.assertTrue(partialBlock.isComplete());
+
+    BlockMessage rebuilt = partialBlock.build();
+    Assert.assertEquals(block.getBlockId(), rebuilt.getBlockId());
+    Assert.assertArrayEquals(block.getData(), rebuilt.getData());
+    // the fetched capsule is reused with its hashes
+    Assert.assertSame(trxs.get(1), rebuilt.getBlockCapsule().getTransactions().get(1));
+  }
+
+  @Test
+  public void missAllAfterMismatch() {
+    BlockCapsule block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 0, ByteString.EMPTY);
+    TransactionCapsule trx = newTransfer(1);
+    block.addTransactions(Collections.singletonList(trx));
+    PartialBlock partialBlock = new PartialBlock(null, new CompactBlockMessage(block),
+        id -> trx.getInstance());
+
+    Assert.assertTrue(partialBlock.isComplete());
+    partialBlock.missAll();
+    Assert.assertFalse(partialBlock.isFromCache());
+    Assert.assertEquals(Collections.singletonList(0), partialBlock.getMissing());
+  }
+}
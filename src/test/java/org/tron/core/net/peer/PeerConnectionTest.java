@@ -0,0 +1,52 @@
+package org.tron.core.net.peer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tron.common.utils.ByteArray;
+import org.tron.common.utils.Sha256Hash;
+import org.tron.common.utils.Time;
+import org.tron.core.config.Parameter.NetConstants;
+import org.tron.core.config.Parameter.NodeConstant;
+
+public class PeerConnectionTest {
+
+  @Test
+  public void syncWindowFollowsLatency() {
+    PeerConnection peer = new PeerConnection();
+    Assert.assertEquals(NodeConstant.SYNC_WINDOW_INIT, peer.getSyncWindow());
+
+    peer.onSyncBlockReceived(Time.getCurrentMillis());
+    Assert.assertEquals(NodeConstant.SYNC_WINDOW_INIT + 1, peer.getSyncWindow());
+
+    long late = Time.getCurrentMillis() - NetConstants.SYNC_TIME_OUT;
+    peer.onSyncBlockReceived(late);
+    Assert.assertEquals((NodeConstant.SYNC_WINDOW_INIT + 1) / 2, peer.getSyncWindow());
+
+    for (int i = 0; i < 10; i++) {
+      peer.onSyncBlockReceived(late);
+    }
+    Assert.assertEquals(NodeConstant.SYNC_WINDOW_MIN, peer.getSyncWindow());
+  }
+
+  @Test
+  public void inventoryIsBoundedAndFloodStillDetected() {
+    PeerConnection peer = new PeerConnection();
+    long floodSize =
+        NetConstants.MAX_INVENTORY_SIZE_IN_MINUTES * 60 * NetConstants.NET_MAX_TRX_PER_SECOND;
+
+    for (long i = 0; i <= floodSize; i++) {
+      peer.getAdvObjSpreadToUs().put(Sha256Hash.of(ByteArray.fromLong(i)), Time.getCurrentMillis());
+    }
+    Assert.assertTrue(peer.isAdvInvFull());
+
+    Sha256Hash newest = null;
+    for (long i = floodSize + 1; i < 2 * NetConstants.MAX_INV_SIZE_PER_PEER; i++) {
+      newest = Sha256Hash.of(ByteArray.fromLong(i));
+      peer.getAdvObjSpreadToUs().put(newest, Time.getCurrentMillis());
+    }
+    peer.cleanInvGarbage();
+    Assert.assertTrue(peer.getAdvObjSpreadToUs().size() <= NetConstants.MAX_INV_SIZE_PER_PEER);
+    Assert.assertTrue(peer.getAdvObjSpreadToUs().containsKey(newest));
+    Assert.assertTrue(peer.isAdvInvFull());
+  }
+}
@@ -0,0 +1,33 @@
+package org.tron.core.witness;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WitnessScheduleTest {
+
+  private static final ByteString A = ByteString.copyFromUtf8("a");
+  private static final ByteString B = ByteString.copyFromUtf8("b");
+  private static final ByteString C = ByteString.copyFromUtf8("c");
+
+  @Test
+  public void testSchedule() {
+    List<ByteString> witnesses = new ArrayList<>(Arrays.asList(A, B));
+    WitnessSchedule schedule = new WitnessSchedule(witnesses);
+    witnesses.add(C);
+
+    Assert.assertEquals(2, schedule.size());
+    Assert.assertEquals(B, schedule.get(1));
+    Assert.assertTrue(schedule.containsAny(ImmutableSet.of(C, B)));
+    Assert.assertFalse(schedule.containsAny(ImmutableSet.of(C)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly() {
+    new WitnessSchedule(Arrays.asList(A, B)).getWitnesses().add(C);
+  }
+}